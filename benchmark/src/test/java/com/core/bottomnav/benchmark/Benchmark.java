@@ -0,0 +1,91 @@
+package com.core.bottomnav.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Minimal JMH-style harness: runs an operation for a few warmup rounds, then for a few measured
+ * rounds, and reports the median time and the allocated bytes per operation.
+ * <p>
+ * Budgets are read from the system properties {@code benchmark.<name>.maxNsPerOp} and
+ * {@code benchmark.<name>.maxAllocPerOp}, a benchmark over its budget fails
+ */
+final class Benchmark {
+
+    interface Operation {
+        /**
+         * @param iteration index of the operation in the round
+         */
+        void run(int iteration);
+    }
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private Benchmark() {
+    }
+
+    /**
+     * Runs and reports the benchmark
+     *
+     * @param name       of the benchmark, used in the report and the budget properties
+     * @param iterations operations per round
+     * @param operation  to measure
+     */
+    static void run(String name, int iterations, Operation operation) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++)
+            runRound(iterations, operation);
+
+        long[] nsPerOp = new long[MEASURED_ROUNDS];
+        long allocPerOp = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            runRound(iterations, operation);
+            nsPerOp[round] = (System.nanoTime() - start) / iterations;
+            long allocatedAfter = allocatedBytes();
+            //the lowest round is the one least disturbed by the harness itself
+            if (allocatedBefore >= 0 && allocatedAfter >= 0)
+                allocPerOp = Math.min(allocPerOp, (allocatedAfter - allocatedBefore) / iterations);
+        }
+        Arrays.sort(nsPerOp);
+        long medianNsPerOp = nsPerOp[MEASURED_ROUNDS / 2];
+        if (allocPerOp == Long.MAX_VALUE)
+            allocPerOp = -1;
+
+        System.out.println(String.format("benchmark %-40s %12d ns/op %10d B/op",
+                name, medianNsPerOp, allocPerOp));
+
+        checkBudget(name, "maxNsPerOp", medianNsPerOp);
+        if (allocPerOp >= 0)
+            checkBudget(name, "maxAllocPerOp", allocPerOp);
+    }
+
+    private static void runRound(int iterations, Operation operation) {
+        for (int i = 0; i < iterations; i++)
+            operation.run(i);
+    }
+
+    /**
+     * @return the bytes allocated so far by the current thread, -1 if the JVM cannot tell
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static void checkBudget(String name, String budget, long value) {
+        String limit = System.getProperty("benchmark." + name + "." + budget);
+        if (limit == null) return;
+        if (value > Long.parseLong(limit.trim()))
+            fail("benchmark " + name + " is over budget, " + budget + " " + limit + " but was " + value);
+    }
+}
@@ -0,0 +1,135 @@
+package com.core.bottomnav.benchmark;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.core.bottomnav.BottomNavConstraintView;
+import com.core.bottomnav.BottomNavLayout;
+import com.core.bottomnav.BottomNavToggleView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * Cost of the selection, badge and layout paths of a bar attached to a window
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BottomNavConstraintViewBenchmark {
+
+    private static final int BAR_WIDTH = 1080;
+    private static final int BAR_HEIGHT = 168;
+
+    //created up front so the badge benchmark does not count the strings
+    private static final String[] BADGE_VALUES = new String[100];
+
+    static {
+        for (int i = 0; i < BADGE_VALUES.length; i++)
+            BADGE_VALUES[i] = String.valueOf(i);
+    }
+
+    private Activity activity;
+    private Context context;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        context = new ContextThemeWrapper(activity, androidx.appcompat.R.style.Theme_AppCompat_Light);
+    }
+
+    /**
+     * Adds the items to the bar and attaches it to the activity
+     */
+    private <T extends ViewGroup> T attach(T bar, int itemCount) {
+        for (int i = 0; i < itemCount; i++)
+            bar.addView(new BottomNavToggleView(context));
+        activity.setContentView(bar);
+        runFrame();
+        measureAndLayout(bar);
+        return bar;
+    }
+
+    private static void measureAndLayout(ViewGroup bar) {
+        bar.measure(View.MeasureSpec.makeMeasureSpec(BAR_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(BAR_HEIGHT, View.MeasureSpec.EXACTLY));
+        bar.layout(0, 0, bar.getMeasuredWidth(), bar.getMeasuredHeight());
+    }
+
+    /**
+     * Runs the pending frame work, the rendering of the state and the transition
+     */
+    private static void runFrame() {
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    @Test
+    public void setCurrentItem() {
+        BottomNavConstraintView bar = attach(new BottomNavConstraintView(context), 4);
+        Benchmark.run("constraintView.setCurrentItem", 500, iteration -> {
+            bar.setCurrentItem(iteration % 2 == 0 ? 1 : 0);
+            measureAndLayout(bar);
+            runFrame();
+        });
+    }
+
+    @Test
+    public void setBadgeValue() {
+        BottomNavConstraintView bar = attach(new BottomNavConstraintView(context), 4);
+        Benchmark.run("constraintView.setBadgeValue", 1000, iteration -> {
+            bar.setBadgeValue(iteration % 4, BADGE_VALUES[iteration % BADGE_VALUES.length]);
+            runFrame();
+        });
+    }
+
+    @Test
+    public void setBadgeCount() {
+        BottomNavConstraintView bar = attach(new BottomNavConstraintView(context), 4);
+        //counts over the cap share the same label
+        Benchmark.run("constraintView.setBadgeCount", 1000, iteration -> {
+            bar.setBadgeCount(iteration % 4, iteration % 150);
+            runFrame();
+        });
+    }
+
+    @Test
+    public void setSelectionProgress() {
+        BottomNavConstraintView bar = attach(new BottomNavConstraintView(context), 4);
+        //one frame of a pager scroll between the first two items
+        Benchmark.run("constraintView.setSelectionProgress", 1000, iteration ->
+                bar.setSelectionProgress(0, 0.01f + (iteration % 98) / 100f));
+    }
+
+    @Test
+    public void constraintViewMeasureLayout() {
+        for (int itemCount = 2; itemCount <= 5; itemCount++) {
+            BottomNavConstraintView bar = attach(new BottomNavConstraintView(context), itemCount);
+            Benchmark.run("constraintView.measureLayout." + itemCount, 500, iteration -> forceMeasureAndLayout(bar));
+        }
+    }
+
+    @Test
+    public void layoutMeasureLayout() {
+        for (int itemCount = 2; itemCount <= 5; itemCount++) {
+            BottomNavLayout bar = attach(new BottomNavLayout(context), itemCount);
+            Benchmark.run("layout.measureLayout." + itemCount, 500, iteration -> forceMeasureAndLayout(bar));
+        }
+    }
+
+    /**
+     * Measures and lays out the bar and all its items again, as after a configuration change
+     */
+    private static void forceMeasureAndLayout(ViewGroup bar) {
+        bar.forceLayout();
+        for (int i = 0; i < bar.getChildCount(); i++)
+            bar.getChildAt(i).forceLayout();
+        measureAndLayout(bar);
+    }
+}
@@ -0,0 +1,44 @@
+package com.core.bottomnav.benchmark;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.core.bottomnav.BottomNavToggleItem;
+import com.core.bottomnav.BottomNavToggleView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Cost of creating a single {@link BottomNavToggleView}
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BottomNavToggleViewBenchmark {
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(),
+                androidx.appcompat.R.style.Theme_AppCompat_Light);
+    }
+
+    @Test
+    public void construction() {
+        Benchmark.run("toggleView.construction", 500, iteration -> new BottomNavToggleView(context));
+    }
+
+    @Test
+    public void constructionFromItem() {
+        BottomNavToggleItem item = new BottomNavToggleItem.Builder(context)
+                .setTitle("Title")
+                .build();
+        Benchmark.run("toggleView.constructionFromItem", 500, iteration -> new BottomNavToggleView(context, item));
+    }
+}
@@ -0,0 +1,126 @@
+package com.core.bottomnav;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.text.TextPaint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Draws the badge of a {@link BottomNavToggleView}. A single instance is reused for every
+ * badge update of an item, so updating the text never creates views or reloads resources
+ */
+class BottomNavBadgeDrawable extends Drawable {
+
+    private final TextPaint textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Drawable background;
+    private final int padding;
+
+    private String text;
+    private int width;
+    private int height;
+    //height of a badge with text, a dot is half of it
+    private final int textHeight;
+
+    BottomNavBadgeDrawable(Context context, int textColor, float textSize, int backgroundColor) {
+        textPaint.setColor(textColor);
+        textPaint.setTextSize(textSize);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+
+        BottomNavResources resources = BottomNavResources.get(context);
+        background = resources.newBadgeBackground(context, backgroundColor);
+        padding = resources.badgePadding;
+
+        Paint.FontMetrics fm = textPaint.getFontMetrics();
+        textHeight = (int) Math.ceil(fm.descent - fm.ascent);
+        height = textHeight;
+        width = height;
+    }
+
+    /**
+     * Sets the text of the badge, the text is only measured when it changed
+     *
+     * @param text as String, {@link BottomNavBadgeLabels#DOT} for a dot, null to hide
+     * @return true if the size of the badge changed
+     */
+    boolean setText(@Nullable String text) {
+        //the labels of the counts are shared, most updates stop here
+        if (text == this.text || (text != null && text != BottomNavBadgeLabels.DOT
+                && this.text != BottomNavBadgeLabels.DOT && text.equals(this.text)))
+            return false;
+
+        this.text = text;
+        int newWidth;
+        int newHeight;
+        if (text == BottomNavBadgeLabels.DOT) {
+            newWidth = newHeight = textHeight / 2;
+        } else {
+            newHeight = textHeight;
+            newWidth = text == null ? textHeight
+                    : Math.max((int) Math.ceil(textPaint.measureText(text)) + 2 * padding, textHeight);
+        }
+        boolean resized = newWidth != width || newHeight != height;
+        width = newWidth;
+        height = newHeight;
+        return resized;
+    }
+
+    @Nullable
+    String getText() {
+        return text;
+    }
+
+    /**
+     * Places the badge so its top end corner is at the given point
+     */
+    void setAnchor(int right, int top) {
+        setBounds(right - width, top, right, top + height);
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (text == null) return;
+
+        Rect bounds = getBounds();
+        if (background != null) {
+            background.setBounds(bounds);
+            background.draw(canvas);
+        }
+        if (text == BottomNavBadgeLabels.DOT) return;
+        float baseline = bounds.exactCenterY() - (textPaint.descent() + textPaint.ascent()) / 2;
+        canvas.drawText(text, bounds.exactCenterX(), baseline, textPaint);
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return width;
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return height;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        textPaint.setAlpha(alpha);
+        if (background != null)
+            background.setAlpha(alpha);
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        textPaint.setColorFilter(colorFilter);
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,48 @@
+package com.core.bottomnav;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Labels of the numeric badges, each one created once and shared, so setting the same count
+ * again does not allocate and is recognized by reference. Can be used from any thread
+ */
+final class BottomNavBadgeLabels {
+
+    static final int DEFAULT_CAP = 99;
+    static final int MAX_CAP = 999;
+
+    //drawn as a dot without text, compared by reference
+    @SuppressWarnings("RedundantStringConstructorCall")
+    static final String DOT = new String("");
+
+    //filled when first needed, two threads creating the same label is harmless
+    private static final String[] counts = new String[MAX_CAP + 1];
+    private static final String[] overflows = new String[MAX_CAP + 1];
+
+    private BottomNavBadgeLabels() {
+    }
+
+    /**
+     * @param count of the badge, 0 or less hides it
+     * @param cap   highest count shown, higher counts show the cap followed by a +
+     * @param dot   true to show a dot instead of the count
+     * @return the label of the count, null to hide the badge
+     */
+    @Nullable
+    static String label(int count, int cap, boolean dot) {
+        if (count <= 0) return null;
+        if (dot) return DOT;
+
+        cap = Math.max(1, Math.min(cap, MAX_CAP));
+        if (count > cap) {
+            String label = overflows[cap];
+            if (label == null)
+                overflows[cap] = label = cap + "+";
+            return label;
+        }
+        String label = counts[count];
+        if (label == null)
+            counts[count] = label = String.valueOf(count);
+        return label;
+    }
+}
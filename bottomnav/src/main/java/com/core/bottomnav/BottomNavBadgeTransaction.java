@@ -0,0 +1,38 @@
+package com.core.bottomnav;
+
+import android.util.SparseArray;
+
+/**
+ * Groups several badge updates so they are applied together on the next frame.
+ * Obtain one with {@link IBottomNavigation#beginBadgeTransaction()}
+ */
+@SuppressWarnings("unused")
+public class BottomNavBadgeTransaction {
+
+    private final IBottomNavigation bottomNavigation;
+    private final SparseArray<String> values = new SparseArray<>();
+
+    BottomNavBadgeTransaction(IBottomNavigation bottomNavigation) {
+        this.bottomNavigation = bottomNavigation;
+    }
+
+    /**
+     * Sets the badge value of an item, replacing any previous value set in this transaction
+     *
+     * @param position of the item
+     * @param value    value to be set in the badge, null to hide
+     * @return this transaction
+     */
+    public BottomNavBadgeTransaction setBadgeValue(int position, String value) {
+        values.put(position, value);
+        return this;
+    }
+
+    /**
+     * Applies the updates of this transaction on the next frame
+     */
+    public void commit() {
+        bottomNavigation.setBadgeValues(values);
+        values.clear();
+    }
+}
@@ -1,12 +1,12 @@
 package com.core.bottomnav;
 
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
 import android.graphics.Typeface;
-import android.os.Bundle;
 import android.os.Parcelable;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.util.SparseArray;
 import android.view.View;
 
@@ -16,37 +16,22 @@ import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.constraintlayout.widget.ConstraintSet;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * BottomNavConstraintView
+ * <p>
+ * Needs the androidx.constraintlayout dependency of the library, apps using only
+ * {@link BottomNavLayout} can exclude it
  */
 
 @SuppressWarnings("unused")
 public class BottomNavConstraintView extends ConstraintLayout implements IBottomNavigation {
 
-    enum DisplayMode {
-        SPREAD,
-        INSIDE,
-        PACKED
-    }
-
-    //constants
-    private static final String TAG = "BNLView";
-    private static final int MIN_ITEMS = 2;
-    private static final int MAX_ITEMS = 5;
-
-    private ArrayList<BottomNavToggleView> bottomNavItems;
-    private BottomNavChangeListener navigationChangeListener;
-
-    private int currentActiveItemPosition = 0;
-    private boolean loadPreviousState;
+    private final BottomNavController controller = new BottomNavController(this);
 
     //default display mode
-    private DisplayMode displayMode = DisplayMode.SPREAD;
-
-    private Typeface currentTypeface;
-
-    private SparseArray<String> pendingBadgeUpdate;
+    private BottomNavDisplayMode displayMode = BottomNavDisplayMode.SPREAD;
 
     /**
      * Constructors
@@ -66,61 +51,83 @@ public class BottomNavConstraintView extends ConstraintLayout implements IBottom
         init(context, attrs);
     }
 
+    @Override
+    public void onViewAdded(View view) {
+        super.onViewAdded(view);
+        controller.onChildAdded(view);
+        if (controller.isReady() && !controller.isSubmittingItems())
+            createChains();
+    }
+
+    @Override
+    public void onViewRemoved(View view) {
+        super.onViewRemoved(view);
+        controller.onChildRemoved(view);
+        if (controller.isReady() && !controller.isSubmittingItems())
+            createChains();
+    }
+
+    @Override
+    protected void onFinishInflate() {
+        super.onFinishInflate();
+        onChildrenReady();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        controller.onHostAttached();
+        //built in code, without inflation
+        onChildrenReady();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        controller.onHostMeasure(widthMeasureSpec);
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        controller.onHostLayout();
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        controller.drawIndicator(canvas);
+        super.dispatchDraw(canvas);
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        controller.onHostConfigurationChanged();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        controller.onHostDetached();
+        super.onDetachedFromWindow();
+    }
+
     @Override
     protected Parcelable onSaveInstanceState() {
-        Bundle bundle = new Bundle();
-        bundle.putParcelable("superState", super.onSaveInstanceState());
-        bundle.putInt("current_item", currentActiveItemPosition);
-        bundle.putBoolean("load_prev_state", true);
-        return bundle;
+        return controller.onSaveInstanceState(super.onSaveInstanceState());
     }
 
     @Override
     protected void onRestoreInstanceState(Parcelable state) {
-        if (state instanceof Bundle) {
-            Bundle bundle = (Bundle) state;
-            currentActiveItemPosition = bundle.getInt("current_item");
-            loadPreviousState = bundle.getBoolean("load_prev_state");
-            state = bundle.getParcelable("superState");
-        }
-        super.onRestoreInstanceState(state);
+        super.onRestoreInstanceState(controller.onRestoreInstanceState(state));
     }
 
     /////////////////////////////////////////
     // CURRENT ITEM SETTER
     /////////////////////////////////////////
     public Boolean setCurrentItem(int position) {
-        if (position < 0 || position == currentActiveItemPosition) {
-            return false;
-        }
-        BottomNavToggleView currentActiveToggleView = bottomNavItems.get(currentActiveItemPosition);
-        BottomNavToggleView newActiveToggleView = bottomNavItems.get(position);
-        if (currentActiveToggleView != null)
-            currentActiveToggleView.toggle();
-        if (newActiveToggleView != null)
-            newActiveToggleView.toggle();
-
-        //changed the current active position
-        currentActiveItemPosition = position;
-        return true;
+        return controller.setCurrentItem(position);
     }
 
-    /////////////////////////////////////////
-    // CLICK LISTENER
-    /////////////////////////////////////////
-    OneClickNavigationListener clickListener = new OneClickNavigationListener() {
-        @Override
-        public void onOneClick(View v) {
-
-            int changedPosition = getItemPositionById(v.getId());
-
-            if (setCurrentItem(changedPosition) && navigationChangeListener != null)
-                navigationChangeListener.onNavigationChanged(v, currentActiveItemPosition);
-            else
-                Log.w(TAG, "Error! Cannot toggle");
-        }
-    };
-
     /////////////////////////////////////////
     // PRIVATE METHODS
     /////////////////////////////////////////
@@ -137,21 +144,16 @@ public class BottomNavConstraintView extends ConstraintLayout implements IBottom
             TypedArray ta = context.obtainStyledAttributes(attrs, com.core.bottomnav.R.styleable.BottomNavConstraintView, 0, 0);
             try {
                 mode = ta.getInteger(com.core.bottomnav.R.styleable.BottomNavConstraintView_bnc_mode, mode);
+                controller.setQueueNavigation(ta.getBoolean(com.core.bottomnav.R.styleable.BottomNavConstraintView_bnc_queueNavigation, false));
+                controller.setIconAtlasEnabled(ta.getBoolean(com.core.bottomnav.R.styleable.BottomNavConstraintView_bnc_iconAtlas, false));
+                controller.setIndicatorEnabled(ta.getBoolean(com.core.bottomnav.R.styleable.BottomNavConstraintView_bnc_indicator, false));
             } finally {
                 ta.recycle();
             }
         }
 
         //sets appropriate display node
-        if (mode >= 0 && mode < DisplayMode.values().length)
-            displayMode = DisplayMode.values()[mode];
-
-        post(new Runnable() {
-            @Override
-            public void run() {
-                updateChildNavItems();
-            }
-        });
+        displayMode = BottomNavDisplayMode.fromAttribute(mode);
     }
 
     /**
@@ -160,7 +162,7 @@ public class BottomNavConstraintView extends ConstraintLayout implements IBottom
      * @param mode display mode
      * @return the constraint chain mode
      */
-    private int getChainTypeFromMode(DisplayMode mode) {
+    private int getChainTypeFromMode(BottomNavDisplayMode mode) {
         switch (mode) {
             case SPREAD:
                 return ConstraintSet.CHAIN_SPREAD;
@@ -174,46 +176,20 @@ public class BottomNavConstraintView extends ConstraintLayout implements IBottom
     }
 
     /**
-     * Finds Child Elements of type {@link BottomNavToggleView} and adds them to {@link #bottomNavItems}
+     * Sets up the child items and chains them, once
      */
-    private void updateChildNavItems() {
-        bottomNavItems = new ArrayList<>();
-        for (int index = 0; index < getChildCount(); ++index) {
-            View view = getChildAt(index);
-            if (view instanceof BottomNavToggleView)
-                bottomNavItems.add((BottomNavToggleView) view);
-            else {
-                Log.w(TAG, "Cannot have child bottomNavItems other than BottomNavToggleView");
-                return;
-            }
-        }
-
-        if (bottomNavItems.size() < MIN_ITEMS) {
-            Log.w(TAG, "The bottomNavItems list should have at least 2 bottomNavItems of BottomNavToggleView");
-        } else if (bottomNavItems.size() > MAX_ITEMS) {
-            Log.w(TAG, "The bottomNavItems list should not have more than 5 bottomNavItems of BottomNavToggleView");
-        }
-
-        setClickListenerForItems();
-        setInitialActiveState();
-        updateMeasurementForItems();
+    private void onChildrenReady() {
+        if (controller.isReady()) return;
+        controller.onChildrenReady();
         createChains();
-
-        if (currentTypeface != null)
-            setTypeface(currentTypeface);
-
-        //update the badge count
-        if (pendingBadgeUpdate != null && bottomNavItems != null) {
-            for (int i = 0; i < pendingBadgeUpdate.size(); i++)
-                setBadgeValue(pendingBadgeUpdate.keyAt(i), pendingBadgeUpdate.valueAt(i));
-            pendingBadgeUpdate.clear();
-        }
     }
 
     /**
-     * Creates the chains to spread the {@link #bottomNavItems} based on the {@link #displayMode}
+     * Creates the chains to spread the items based on the {@link #displayMode}
      */
     private void createChains() {
+        ArrayList<BottomNavToggleView> bottomNavItems = controller.getItems();
+
         ConstraintSet constraintSet = new ConstraintSet();
         constraintSet.clone(this);
 
@@ -239,80 +215,72 @@ public class BottomNavConstraintView extends ConstraintLayout implements IBottom
         constraintSet.applyTo(this);
     }
 
+    ///////////////////////////////////////////
+    // PUBLIC METHODS
+    ///////////////////////////////////////////
+
     /**
-     * Makes sure that ONLY ONE child {@link #bottomNavItems} is active
+     * Set the navigation change listener {@link BottomNavChangeListener}
+     *
+     * @param navigationChangeListener sets the passed parameters as listener
      */
-    private void setInitialActiveState() {
-
-        if (bottomNavItems == null) return;
-
-        boolean foundActiveElement = false;
-
-        // find the initial state
-        if (!loadPreviousState) {
-            for (int i = 0; i < bottomNavItems.size(); i++) {
-                if (bottomNavItems.get(i).isActive() && !foundActiveElement) {
-                    foundActiveElement = true;
-                    currentActiveItemPosition = i;
-                } else {
-                    bottomNavItems.get(i).setInitialState(false);
-                }
-            }
-        } else {
-            for (int i = 0; i < bottomNavItems.size(); i++) {
-                bottomNavItems.get(i).setInitialState(false);
-            }
-        }
-        //set the active element
-        if (!foundActiveElement)
-            bottomNavItems.get(currentActiveItemPosition).setInitialState(true);
+    @Override
+    public void setNavigationChangeListener(BottomNavChangeListener navigationChangeListener) {
+        controller.setNavigationChangeListener(navigationChangeListener);
     }
 
     /**
-     * Update the measurements of the child components {@link #bottomNavItems}
+     * Shows the given items, diffed by id with the current ones. Only the new, removed, moved
+     * or changed items are updated, the items declared in xml are replaced
+     *
+     * @param specs of the items, in order
      */
-    private void updateMeasurementForItems() {
-        int numChildElements = bottomNavItems.size();
-        if (numChildElements > 0) {
-            int calculatedEachItemWidth = (getMeasuredWidth() - (getPaddingRight() + getPaddingLeft())) / numChildElements;
-            for (BottomNavToggleView btv : bottomNavItems)
-                btv.updateMeasurements(calculatedEachItemWidth);
-        }
+    public void submitItems(List<BottomNavItemSpec> specs) {
+        //the chain is only rebuilt when the items were added, removed or moved
+        if (controller.submitItems(specs) && controller.isReady())
+            createChains();
     }
 
     /**
-     * Sets {@link View.OnClickListener} for the child views
+     * Set the navigation intent listener {@link BottomNavIntentListener}, notified on touch down
+     * or hover over an item, before the navigation change
+     *
+     * @param navigationIntentListener sets the passed parameters as listener
      */
-    private void setClickListenerForItems() {
-        for (BottomNavToggleView btv : bottomNavItems)
-            btv.setOnClickListener(clickListener);
+    @Override
+    public void setNavigationIntentListener(BottomNavIntentListener navigationIntentListener) {
+        controller.setNavigationIntentListener(navigationIntentListener);
     }
 
     /**
-     * Gets the Position of the Child from {@link #bottomNavItems} from its id
+     * Sets what happens to a click while the transition between the items is running
      *
-     * @param id of view to be searched
-     * @return position of the Item
+     * @param queueNavigation true to apply the latest click when the transition ends,
+     *                        false to ignore the clicks until then
      */
-    private int getItemPositionById(int id) {
-        for (int i = 0; i < bottomNavItems.size(); i++)
-            if (id == bottomNavItems.get(i).getId())
-                return i;
-        return -1;
+    public void setQueueNavigation(boolean queueNavigation) {
+        controller.setQueueNavigation(queueNavigation);
     }
 
-    ///////////////////////////////////////////
-    // PUBLIC METHODS
-    ///////////////////////////////////////////
+    /**
+     * Draws the icons of all the items from a single bitmap, rasterized once in their active
+     * and inactive colors, instead of drawing each icon again
+     *
+     * @param enabled true to use the icon atlas
+     */
+    public void setIconAtlasEnabled(boolean enabled) {
+        controller.setIconAtlasEnabled(enabled);
+    }
 
     /**
-     * Set the navigation change listener {@link BottomNavChangeListener}
+     * Draws the shape of the active item once, behind the items, and slides it between the
+     * items instead of fading a background in each item. The shape is the bt_shape of the
+     * active item, in its bt_shapeColor
      *
-     * @param navigationChangeListener sets the passed parameters as listener
+     * @param enabled true to use the sliding indicator
      */
-    @Override
-    public void setNavigationChangeListener(BottomNavChangeListener navigationChangeListener) {
-        this.navigationChangeListener = navigationChangeListener;
+    public void setIndicatorEnabled(boolean enabled) {
+        controller.setIndicatorEnabled(enabled);
     }
 
     /**
@@ -322,63 +290,108 @@ public class BottomNavConstraintView extends ConstraintLayout implements IBottom
      */
     @Override
     public void setTypeface(Typeface typeface) {
-        if (bottomNavItems != null) {
-            for (BottomNavToggleView btv : bottomNavItems)
-                btv.setTitleTypeface(typeface);
-        } else {
-            currentTypeface = typeface;
-        }
+        controller.setTypeface(typeface);
     }
 
     /**
-     * Gets the current active position
+     * Gets the current active position, including a change requested but not rendered yet
      *
      * @return active item position
      */
     @Override
     public int getCurrentActiveItemPosition() {
-        return currentActiveItemPosition;
+        return controller.getCurrentActiveItemPosition();
     }
 
     /**
-     * Sets the current active item
+     * Sets the current active item on the next frame. Can be called from any thread
      *
      * @param position current position change
      */
     @Override
     public void setCurrentActiveItem(int position) {
+        controller.setCurrentActiveItem(position);
+    }
 
-        if (bottomNavItems == null) {
-            currentActiveItemPosition = position;
-            return;
-        }
-
-        if (currentActiveItemPosition == position) return;
-
-        if (position < 0 || position >= bottomNavItems.size())
-            return;
-
-        BottomNavToggleView btv = bottomNavItems.get(position);
-        btv.performClick();
+    /**
+     * Shows the selection part way between two items, for example from
+     * {@code onPageScrolled} of a pager. Does not allocate or request a layout while the same
+     * two items are scrolled, and does not notify the {@link BottomNavChangeListener}.
+     * Must be called from the main thread
+     *
+     * @param fromPosition item on the start side
+     * @param offset       from 0, at fromPosition, to 1, at the next item
+     */
+    @Override
+    public void setSelectionProgress(int fromPosition, float offset) {
+        controller.setSelectionProgress(fromPosition, offset);
     }
 
     /**
-     * Sets the badge value
+     * Sets the badge value on the next frame. Can be called from any thread, rapid updates
+     * of the same position within a frame are merged and only the latest value is rendered
      *
      * @param position current position change
      * @param value    value to be set in the badge
      */
     @Override
     public void setBadgeValue(int position, String value) {
-        if (bottomNavItems != null) {
-            BottomNavToggleView btv = bottomNavItems.get(position);
-            if (btv != null)
-                btv.setBadgeText(value);
-        } else {
-            if (pendingBadgeUpdate == null)
-                pendingBadgeUpdate = new SparseArray<>();
-            pendingBadgeUpdate.put(position, value);
-        }
+        controller.setBadgeValue(position, value);
+    }
+
+    /**
+     * Sets several badge values, rendered together on the next frame.
+     * Can be called from any thread
+     *
+     * @param values badge values by position, null values hide the badge
+     */
+    @Override
+    public void setBadgeValues(SparseArray<String> values) {
+        controller.setBadgeValues(values);
+    }
+
+    /**
+     * Sets the badge to a count on the next frame, 0 or less hides it. Counts over the cap
+     * show the cap followed by a +, see {@link #setBadgeCountCap(int)}. The labels are shared,
+     * so the same count does not allocate and is not rendered again. Can be called from any thread
+     *
+     * @param position of the item
+     * @param count    to be shown in the badge
+     */
+    @Override
+    public void setBadgeCount(int position, int count) {
+        controller.setBadgeCount(position, count);
+    }
+
+    /**
+     * Sets the highest count shown by {@link #setBadgeCount(int, int)}, applied to the next
+     * counts set
+     *
+     * @param cap from 1 to 999, 99 by default
+     */
+    public void setBadgeCountCap(int cap) {
+        controller.setBadgeCountCap(cap);
+    }
+
+    /**
+     * Shows a dot instead of the count for the next counts set with
+     * {@link #setBadgeCount(int, int)}, to tell there is something new without a number
+     *
+     * @param dotMode true to show a dot
+     */
+    public void setBadgeDotMode(boolean dotMode) {
+        controller.setBadgeDotMode(dotMode);
+    }
+
+    /**
+     * Starts a group of badge updates, applied together on the next frame
+     * when {@link BottomNavBadgeTransaction#commit()} is called
+     *
+     * @return a new transaction
+     */
+    @Override
+    public BottomNavBadgeTransaction beginBadgeTransaction() {
+        return new BottomNavBadgeTransaction(this);
     }
 
 }
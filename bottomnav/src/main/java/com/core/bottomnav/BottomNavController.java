@@ -0,0 +1,1124 @@
+package com.core.bottomnav;
+
+import android.graphics.Canvas;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Parcelable;
+import android.util.Log;
+import android.util.LongSparseArray;
+import android.util.SparseArray;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.core.text.PrecomputedTextCompat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Navigation logic shared by the bottom navigation containers: finds the
+ * {@link BottomNavToggleView} children, keeps the selection and badges, and runs the transition
+ * between the active items. The container only has to place the items.
+ * <p>
+ * A container recycling its items only attaches the visible ones: it binds them with
+ * {@link #bindItem(BottomNavToggleView, int)} and unbinds them with
+ * {@link #unbindItem(BottomNavToggleView)}, the other positions have no view
+ */
+class BottomNavController {
+
+    /**
+     * Notified when the active item changes, for the containers following it
+     */
+    interface SelectionListener {
+        void onItemSelected(int position);
+    }
+
+    //constants
+    private static final String TAG = "BNController";
+    private static final int MIN_ITEMS = 2;
+    private static final int MAX_ITEMS = 5;
+
+    private final ViewGroup host;
+    //the host only attaches the visible items, the positions without a view hold null
+    private final boolean recyclingItems;
+
+    private final ArrayList<BottomNavToggleView> bottomNavItems = new ArrayList<>();
+    //specs of all the items, only when recycling
+    private final ArrayList<BottomNavItemSpec> itemSpecs = new ArrayList<>();
+    //items having a view, reused by each transition when recycling
+    private final ArrayList<BottomNavToggleView> boundItems = new ArrayList<>();
+    private SelectionListener selectionListener;
+    private boolean itemsReady;
+    //set while submitted items are added and removed, the items are updated once at the end
+    private boolean submittingItems;
+    private int measuredWidth = -1;
+    private BottomNavChangeListener navigationChangeListener;
+    private BottomNavIntentListener navigationIntentListener;
+
+    //item of the last navigation intent, until it is cancelled or navigated to
+    private View intentView;
+    private int intentPosition = -1;
+
+    private int currentActiveItemPosition = 0;
+    private boolean loadPreviousState;
+
+    private Typeface currentTypeface;
+    //locale the titles are shaped for
+    private Locale titleLocale = Locale.getDefault();
+    //discards the title styles measured in the background and replaced in the meantime
+    private int titleStyleGeneration;
+
+    //format of the badge counts, read from any thread
+    private volatile int badgeCountCap = BottomNavBadgeLabels.DEFAULT_CAP;
+    private volatile boolean badgeDotMode;
+
+    //latest selection and badges, written from any thread and rendered once per frame
+    private final BottomNavState state = new BottomNavState();
+    private final String[] renderedBadgeValues = new String[BottomNavState.MAX_POSITIONS];
+    private final Runnable renderStateRunnable = this::renderState;
+    //the frames are only requested from the main thread, see scheduleRenderState
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable postRenderStateRunnable = this::postRenderState;
+
+    //animates the switch between the active items
+    private final BottomNavTransitionAnimator transitionAnimator = new BottomNavTransitionAnimator();
+
+    //icons drawn from a single bitmap, when enabled
+    private boolean iconAtlasEnabled;
+    private BottomNavIconAtlas iconAtlas;
+    //the items changed since the atlas was built, it is built again before the next measure
+    private boolean iconAtlasDirty;
+
+    //items of the transition driven by setSelectionProgress, -1 when there is none
+    private int progressOutgoing = -1;
+    private int progressIncoming = -1;
+
+    //shape of the active item drawn by the container, when enabled
+    private boolean indicatorEnabled;
+    private BottomNavIndicator indicator;
+
+    //clicks received while the transition runs are ignored, or the latest one is applied at its end
+    private boolean queueNavigation;
+    private View queuedView;
+    private final Runnable applyQueuedNavigationRunnable = this::applyQueuedNavigation;
+
+    BottomNavController(ViewGroup host) {
+        this(host, false);
+    }
+
+    /**
+     * @param recyclingItems true if the host only attaches the visible items and binds them
+     *                       with {@link #bindItem(BottomNavToggleView, int)}
+     */
+    BottomNavController(ViewGroup host, boolean recyclingItems) {
+        this.host = host;
+        this.recyclingItems = recyclingItems;
+        //the badges set on the items themselves are kept until a value is set
+        Arrays.fill(renderedBadgeValues, BottomNavState.UNSET);
+        transitionAnimator.setListener(new BottomNavTransitionAnimator.Listener() {
+            @Override
+            public void onTransitionFrame(BottomNavToggleView incoming, float fraction) {
+                //only the container is redrawn, the items are not invalidated
+                if (indicator != null) {
+                    indicator.onMoveFrame(incoming, fraction);
+                    host.invalidate();
+                }
+            }
+
+            @Override
+            public void onTransitionEnd() {
+                if (indicator != null) {
+                    indicator.endMove();
+                    host.invalidate();
+                }
+                //applied after the frame, never from inside the animator
+                if (queuedView != null)
+                    host.post(applyQueuedNavigationRunnable);
+            }
+        });
+    }
+
+    /////////////////////////////////////////
+    // CLICK LISTENER
+    /////////////////////////////////////////
+    private final View.OnClickListener clickListener = new View.OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            //the click is gated until the transition really ends
+            if (transitionAnimator.isRunning()) {
+                if (queueNavigation) {
+                    queuedView = v;
+                } else {
+                    cancelNavigationIntent();
+                }
+                return;
+            }
+            navigate(v);
+        }
+    };
+
+    /**
+     * Navigates to the clicked item and notifies the {@link #navigationChangeListener}
+     */
+    private void navigate(View v) {
+        int changedPosition = getItemPosition(v);
+
+        if (setCurrentItem(changedPosition)) {
+            //the intent led to the change
+            clearNavigationIntent();
+            if (navigationChangeListener != null)
+                navigationChangeListener.onNavigationChanged(v, currentActiveItemPosition);
+        } else {
+            cancelNavigationIntent();
+            Log.w(TAG, "Error! Cannot toggle");
+        }
+    }
+
+    private void applyQueuedNavigation() {
+        View view = queuedView;
+        queuedView = null;
+        if (view == null || view.getParent() != host) return;
+        //the queued item is already the active one
+        if (getItemPosition(view) == currentActiveItemPosition) {
+            cancelNavigationIntent();
+            return;
+        }
+        navigate(view);
+    }
+
+    /////////////////////////////////////////
+    // INTENT LISTENER
+    /////////////////////////////////////////
+
+    /**
+     * Reports the navigation intents from the touch and hover events of the items, shared by
+     * all the items. Never consumes the events, so the clicks are still delivered
+     */
+    private final class IntentTracker implements View.OnTouchListener, View.OnHoverListener {
+
+        @Override
+        public boolean onTouch(View v, MotionEvent event) {
+            switch (event.getActionMasked()) {
+                case MotionEvent.ACTION_DOWN:
+                    startNavigationIntent(v);
+                    break;
+                case MotionEvent.ACTION_MOVE:
+                    //dragged out of the item, the click will not happen
+                    if (v == intentView && !isInside(v, event))
+                        cancelNavigationIntent();
+                    break;
+                case MotionEvent.ACTION_UP:
+                    if (v == intentView && !isInside(v, event))
+                        cancelNavigationIntent();
+                    break;
+                case MotionEvent.ACTION_CANCEL:
+                    if (v == intentView)
+                        cancelNavigationIntent();
+                    break;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean onHover(View v, MotionEvent event) {
+            switch (event.getActionMasked()) {
+                case MotionEvent.ACTION_HOVER_ENTER:
+                    startNavigationIntent(v);
+                    break;
+                case MotionEvent.ACTION_HOVER_EXIT:
+                    //a press also ends the hover, keep the intent until the click
+                    if (v == intentView && event.getButtonState() == 0)
+                        cancelNavigationIntent();
+                    break;
+            }
+            return false;
+        }
+
+        private boolean isInside(View v, MotionEvent event) {
+            float x = event.getX();
+            float y = event.getY();
+            return x >= 0 && y >= 0 && x < v.getWidth() && y < v.getHeight();
+        }
+    }
+
+    private final IntentTracker intentTracker = new IntentTracker();
+
+    private void startNavigationIntent(View v) {
+        if (v == intentView) return;
+        cancelNavigationIntent();
+
+        int position = getItemPosition(v);
+        if (position < 0 || position == currentActiveItemPosition) return;
+
+        intentView = v;
+        intentPosition = position;
+        if (navigationIntentListener != null)
+            navigationIntentListener.onNavigationIntent(v, position);
+    }
+
+    private void cancelNavigationIntent() {
+        if (intentView == null) return;
+        View view = intentView;
+        int position = intentPosition;
+        clearNavigationIntent();
+        if (navigationIntentListener != null)
+            navigationIntentListener.onNavigationIntentCancelled(view, position);
+    }
+
+    private void clearNavigationIntent() {
+        intentView = null;
+        intentPosition = -1;
+    }
+
+    /////////////////////////////////////////
+    // HOST CALLBACKS
+    /////////////////////////////////////////
+
+    /**
+     * Must be called from the host after it laid out its children
+     */
+    void onHostLayout() {
+        transitionAnimator.onHostLayout();
+    }
+
+    /**
+     * Must be called from the host when it is attached to the window
+     */
+    void onHostAttached() {
+        //a frame requested while detached may never run, request it again
+        if (state.isDirty()) {
+            host.removeCallbacks(renderStateRunnable);
+            host.postOnAnimation(renderStateRunnable);
+        }
+    }
+
+    /**
+     * Must be called from the host when it is detached from the window
+     */
+    void onHostDetached() {
+        host.removeCallbacks(applyQueuedNavigationRunnable);
+        queuedView = null;
+        cancelNavigationIntent();
+        clearSelectionProgress();
+        transitionAnimator.end();
+    }
+
+    /**
+     * Must be called from the host when its configuration changes
+     */
+    void onHostConfigurationChanged() {
+        Locale locale = Locale.getDefault();
+        if (locale.equals(titleLocale)) return;
+        titleLocale = locale;
+        updateTitleStyle();
+    }
+
+    Parcelable onSaveInstanceState(Parcelable superState) {
+        Bundle bundle = new Bundle();
+        bundle.putParcelable("superState", superState);
+        bundle.putInt("current_item", currentActiveItemPosition);
+        bundle.putBoolean("load_prev_state", true);
+        return bundle;
+    }
+
+    /**
+     * @return the state to pass to the super class
+     */
+    Parcelable onRestoreInstanceState(Parcelable savedState) {
+        if (savedState instanceof Bundle) {
+            Bundle bundle = (Bundle) savedState;
+            currentActiveItemPosition = bundle.getInt("current_item");
+            state.setSelectedPosition(currentActiveItemPosition);
+            loadPreviousState = bundle.getBoolean("load_prev_state");
+            //the items are already set up when the state is restored
+            if (itemsReady) {
+                setInitialActiveState();
+                //a position out of the current items falls back to the first one
+                state.setSelectedPosition(currentActiveItemPosition);
+            }
+            return bundle.getParcelable("superState");
+        }
+        return savedState;
+    }
+
+    /////////////////////////////////////////
+    // ITEMS
+    /////////////////////////////////////////
+
+    /**
+     * Must be called from the host when a child is added
+     */
+    void onChildAdded(View child) {
+        if (!(child instanceof BottomNavToggleView)) {
+            Log.w(TAG, "Cannot have child bottomNavItems other than BottomNavToggleView");
+            return;
+        }
+        setUpItem(child);
+        if (!submittingItems)
+            updateChildNavItems();
+    }
+
+    /**
+     * Must be called from the host when a child is removed
+     */
+    void onChildRemoved(View child) {
+        if (!(child instanceof BottomNavToggleView)) return;
+        tearDownItem((BottomNavToggleView) child);
+        if (!submittingItems)
+            updateChildNavItems();
+    }
+
+    private void setUpItem(View item) {
+        item.setOnClickListener(clickListener);
+        item.setOnTouchListener(intentTracker);
+        item.setOnHoverListener(intentTracker);
+    }
+
+    private void tearDownItem(BottomNavToggleView item) {
+        if (item == intentView)
+            cancelNavigationIntent();
+        if (item == queuedView)
+            queuedView = null;
+        item.setOnClickListener(null);
+        item.setOnTouchListener(null);
+        item.setOnHoverListener(null);
+        item.setNavPosition(-1);
+    }
+
+    /**
+     * Must be called from the host once its children are added, from onFinishInflate or,
+     * for hosts built in code, when attached to the window. From then on the items are ready
+     * and set up as they are added, before the first measure
+     */
+    void onChildrenReady() {
+        if (itemsReady) return;
+        itemsReady = true;
+        updateChildNavItems();
+        updateIconAtlasIfDirty();
+    }
+
+    /**
+     * Must be called from the host at the start of onMeasure
+     *
+     * @param widthMeasureSpec of the host
+     */
+    void onHostMeasure(int widthMeasureSpec) {
+        //the items added one by one are rasterized once
+        updateIconAtlasIfDirty();
+        if (bottomNavItems.isEmpty()) return;
+        int width = View.MeasureSpec.getSize(widthMeasureSpec) - (host.getPaddingRight() + host.getPaddingLeft());
+        if (width != measuredWidth) {
+            measuredWidth = width;
+            updateMeasurementForItems();
+        }
+    }
+
+    boolean isReady() {
+        return itemsReady;
+    }
+
+    /**
+     * @return true while {@link #submitItems(List)} adds and removes the items
+     */
+    boolean isSubmittingItems() {
+        return submittingItems;
+    }
+
+    /**
+     * Collects the children of type {@link BottomNavToggleView} in {@link #bottomNavItems} and,
+     * once the items are ready, sets their initial state
+     */
+    private void updateChildNavItems() {
+        //the bound items are kept by bindItem
+        if (!recyclingItems) {
+            bottomNavItems.clear();
+            for (int index = 0; index < host.getChildCount(); ++index) {
+                View view = host.getChildAt(index);
+                if (view instanceof BottomNavToggleView) {
+                    ((BottomNavToggleView) view).setNavPosition(bottomNavItems.size());
+                    bottomNavItems.add((BottomNavToggleView) view);
+                }
+            }
+        }
+
+        if (!itemsReady) return;
+
+        if (recyclingItems) {
+            if (bottomNavItems.size() > BottomNavState.MAX_POSITIONS)
+                Log.w(TAG, "The badges are only kept for the first " + BottomNavState.MAX_POSITIONS + " items");
+        } else if (bottomNavItems.size() < MIN_ITEMS) {
+            Log.w(TAG, "The bottomNavItems list should have at least 2 bottomNavItems of BottomNavToggleView");
+        } else if (bottomNavItems.size() > MAX_ITEMS) {
+            Log.w(TAG, "The bottomNavItems list should not have more than 5 bottomNavItems of BottomNavToggleView, use BottomNavScrollView for more");
+        }
+
+        //a selection requested before the items were found wins over bt_active
+        int requestedPosition = state.getSelectedPosition();
+        if (requestedPosition >= 0 && requestedPosition < bottomNavItems.size()) {
+            currentActiveItemPosition = requestedPosition;
+            loadPreviousState = true;
+        }
+
+        setInitialActiveState();
+        measuredWidth = -1;
+
+        //apply the typeface, selection and badges set before the items were found
+        if (currentTypeface != null) {
+            for (BottomNavToggleView btv : bottomNavItems) {
+                if (btv != null)
+                    btv.setTitleTypeface(currentTypeface);
+            }
+        }
+
+        state.initSelectedPosition(currentActiveItemPosition);
+        renderState();
+        iconAtlasDirty = iconAtlasEnabled;
+        updateIndicator();
+    }
+
+    ArrayList<BottomNavToggleView> getItems() {
+        return bottomNavItems;
+    }
+
+    /**
+     * Makes sure that ONLY ONE child {@link #bottomNavItems} is active
+     */
+    private void setInitialActiveState() {
+
+        if (bottomNavItems.isEmpty()) return;
+
+        if (currentActiveItemPosition >= bottomNavItems.size())
+            currentActiveItemPosition = 0;
+
+        //the submitted items have no active state of their own
+        if (recyclingItems) {
+            for (int i = 0; i < bottomNavItems.size(); i++) {
+                BottomNavToggleView item = bottomNavItems.get(i);
+                if (item != null)
+                    item.setInitialState(i == currentActiveItemPosition);
+            }
+            return;
+        }
+
+        boolean foundActiveElement = false;
+
+        // find the initial state
+        if (!loadPreviousState) {
+            for (int i = 0; i < bottomNavItems.size(); i++) {
+                if (bottomNavItems.get(i).isActive() && !foundActiveElement) {
+                    foundActiveElement = true;
+                    currentActiveItemPosition = i;
+                } else {
+                    bottomNavItems.get(i).setInitialState(false);
+                }
+            }
+        } else {
+            for (int i = 0; i < bottomNavItems.size(); i++) {
+                bottomNavItems.get(i).setInitialState(false);
+            }
+        }
+        //set the active element
+        if (!foundActiveElement)
+            bottomNavItems.get(currentActiveItemPosition).setInitialState(true);
+    }
+
+    /**
+     * Fits the titles of the child components {@link #bottomNavItems} in the bar. The inactive
+     * items only show their icon, so an active item gets the rest of the width. Run from the
+     * measure of the host, only when its width changes
+     */
+    private void updateMeasurementForItems() {
+        if (bottomNavItems.isEmpty() || measuredWidth <= 0) return;
+
+        int inactiveWidth = 0;
+        for (BottomNavToggleView btv : bottomNavItems)
+            inactiveWidth += btv.getInactiveWidth();
+        for (BottomNavToggleView btv : bottomNavItems)
+            btv.updateMeasurements(measuredWidth - (inactiveWidth - btv.getInactiveWidth()));
+    }
+
+    /**
+     * Gets the Position of the Child in {@link #bottomNavItems}, kept by the item itself
+     *
+     * @param view to be searched
+     * @return position of the Item, -1 if not an item of the bar
+     */
+    private int getItemPosition(View view) {
+        if (!(view instanceof BottomNavToggleView)) return -1;
+        int position = ((BottomNavToggleView) view).getNavPosition();
+        return position >= 0 && position < bottomNavItems.size() && bottomNavItems.get(position) == view
+                ? position : -1;
+    }
+
+    /////////////////////////////////////////
+    // SUBMITTED ITEMS
+    /////////////////////////////////////////
+
+    /**
+     * Shows the given items. Items are matched by id with the current ones: new ids create an
+     * item, missing ids remove it and the kept items are only rebound when their content changed.
+     * The items without a spec, declared in xml, are replaced. The active item stays active
+     * while it is kept, the badges stay on their position
+     *
+     * @param specs of the items, in order
+     * @return true if items were added, removed or moved
+     */
+    boolean submitItems(List<BottomNavItemSpec> specs) {
+        if (recyclingItems)
+            return submitRecycledItems(specs);
+
+        //current items by id
+        LongSparseArray<BottomNavToggleView> previousItems = new LongSparseArray<>(bottomNavItems.size());
+        for (BottomNavToggleView item : bottomNavItems) {
+            BottomNavItemSpec spec = item.getItemSpec();
+            if (spec != null)
+                previousItems.put(spec.getId(), item);
+        }
+        BottomNavToggleView activeItem = currentActiveItemPosition < bottomNavItems.size()
+                ? bottomNavItems.get(currentActiveItemPosition) : null;
+
+        ArrayList<BottomNavToggleView> items = new ArrayList<>(specs.size());
+        boolean structureChanged = false;
+        boolean contentChanged = false;
+        for (BottomNavItemSpec spec : specs) {
+            BottomNavToggleView item = previousItems.get(spec.getId());
+            if (item == null) {
+                item = createItem(spec);
+                structureChanged = true;
+            } else {
+                previousItems.remove(spec.getId());
+                //unchanged items are not touched
+                if (!spec.hasSameContent(item.getItemSpec())) {
+                    item.bind(spec);
+                    contentChanged = true;
+                }
+            }
+            items.add(item);
+        }
+
+        transitionAnimator.end();
+        submittingItems = true;
+        try {
+            //remove the items not submitted anymore
+            for (int i = bottomNavItems.size() - 1; i >= 0; i--) {
+                BottomNavToggleView item = bottomNavItems.get(i);
+                BottomNavItemSpec spec = item.getItemSpec();
+                if (spec == null || previousItems.get(spec.getId()) == item) {
+                    host.removeView(item);
+                    structureChanged = true;
+                }
+            }
+
+            //add the new items and move the kept ones to their position
+            for (int i = 0; i < items.size(); i++) {
+                BottomNavToggleView item = items.get(i);
+                if (item.getParent() != host) {
+                    host.addView(item, Math.min(i, host.getChildCount()));
+                } else if (host.getChildAt(i) != item) {
+                    host.removeView(item);
+                    host.addView(item, Math.min(i, host.getChildCount()));
+                } else {
+                    continue;
+                }
+                structureChanged = true;
+            }
+        } finally {
+            submittingItems = false;
+        }
+
+        if (structureChanged) {
+            //the items moved under the badges, every position is rendered again
+            Arrays.fill(renderedBadgeValues, null);
+            //keep the active item active
+            int activePosition = items.indexOf(activeItem);
+            if (activePosition < 0)
+                activePosition = Math.max(Math.min(currentActiveItemPosition, items.size() - 1), 0);
+            state.setSelectedPosition(activePosition);
+            updateChildNavItems();
+            updateIconAtlasIfDirty();
+        } else if (contentChanged) {
+            updateIconAtlas();
+        }
+        return structureChanged;
+    }
+
+    /**
+     * Replaces the specs of a host recycling its items, its views must all be unbound first. The
+     * active item stays active while it is kept, a position restored before the first items
+     * is kept
+     */
+    private boolean submitRecycledItems(List<BottomNavItemSpec> specs) {
+        int activePosition = Math.max(Math.min(currentActiveItemPosition, specs.size() - 1), 0);
+        if (!itemSpecs.isEmpty()) {
+            long activeId = itemSpecs.get(Math.min(currentActiveItemPosition, itemSpecs.size() - 1)).getId();
+            activePosition = 0;
+            for (int i = 0; i < specs.size(); i++) {
+                if (specs.get(i).getId() == activeId) {
+                    activePosition = i;
+                    break;
+                }
+            }
+        }
+
+        transitionAnimator.end();
+        clearSelectionProgress();
+        itemSpecs.clear();
+        itemSpecs.addAll(specs);
+        bottomNavItems.clear();
+        for (int i = 0; i < specs.size(); i++)
+            bottomNavItems.add(null);
+        Arrays.fill(renderedBadgeValues, null);
+
+        currentActiveItemPosition = activePosition;
+        state.setSelectedPosition(activePosition);
+        updateChildNavItems();
+        return true;
+    }
+
+    private BottomNavToggleView createItem(BottomNavItemSpec spec) {
+        if (spec.getItem() != null) {
+            BottomNavToggleView item = new BottomNavToggleView(host.getContext(), spec.getItem());
+            item.setItemSpec(spec);
+            return item;
+        }
+        //built ahead of time when prewarmed
+        BottomNavToggleView item = BottomNavPrewarmer.poll(host.getContext());
+        if (item == null)
+            item = new BottomNavToggleView(host.getContext());
+        item.bind(spec);
+        return item;
+    }
+
+    /////////////////////////////////////////
+    // RECYCLED ITEMS
+    /////////////////////////////////////////
+
+    /**
+     * @return the number of items, bound or not
+     */
+    int getItemCount() {
+        return bottomNavItems.size();
+    }
+
+    /**
+     * @return the spec of the position of a host recycling its items
+     */
+    BottomNavItemSpec getItemSpec(int position) {
+        return itemSpecs.get(position);
+    }
+
+    /**
+     * Must be called from a host recycling its items when a view shows a position, with the
+     * content of the spec already bound. Applies the selection, badge and title style of the
+     * position
+     */
+    void bindItem(BottomNavToggleView item, int position) {
+        bottomNavItems.set(position, item);
+        item.setNavPosition(position);
+        setUpItem(item);
+        if (currentTypeface != null)
+            item.setTitleTypeface(currentTypeface);
+        item.setTitleLocale(titleLocale);
+        //the state of the position, not the one of the previous position of the view
+        item.setInitialState(position == currentActiveItemPosition);
+
+        String value = state.getBadgeValue(position);
+        item.setBadgeText(value == BottomNavState.UNSET ? null : value);
+        if (position < BottomNavState.MAX_POSITIONS)
+            renderedBadgeValues[position] = value;
+    }
+
+    /**
+     * Must be called from a host recycling its items when a view stops showing its position
+     */
+    void unbindItem(BottomNavToggleView item) {
+        int position = getItemPosition(item);
+        if (position < 0) return;
+        //the transition may move the view
+        if (transitionAnimator.isRunning()) {
+            clearSelectionProgress();
+            transitionAnimator.end();
+        }
+        bottomNavItems.set(position, null);
+        tearDownItem(item);
+    }
+
+    void setSelectionListener(SelectionListener selectionListener) {
+        this.selectionListener = selectionListener;
+    }
+
+    /**
+     * @return the items having a view, all of them unless the host recycles its items
+     */
+    private ArrayList<BottomNavToggleView> getBoundItems() {
+        if (!recyclingItems) return bottomNavItems;
+        boundItems.clear();
+        for (BottomNavToggleView item : bottomNavItems) {
+            if (item != null)
+                boundItems.add(item);
+        }
+        return boundItems;
+    }
+
+    /**
+     * @return the view of the position, or the host when the position has no view
+     */
+    private View getItemView(int position) {
+        View item = bottomNavItems.get(position);
+        return item != null ? item : host;
+    }
+
+    private void toggleItem(int position) {
+        BottomNavToggleView item = bottomNavItems.get(position);
+        if (item != null)
+            item.toggle();
+    }
+
+    private void notifyItemSelected(int position) {
+        if (selectionListener != null)
+            selectionListener.onItemSelected(position);
+    }
+
+    /////////////////////////////////////////
+    // CURRENT ITEM SETTER
+    /////////////////////////////////////////
+    boolean setCurrentItem(int position) {
+        if (!itemsReady || position < 0 || position >= bottomNavItems.size()
+                || position == currentActiveItemPosition) {
+            return false;
+        }
+        BottomNavToggleView currentActiveToggleView = currentActiveItemPosition < bottomNavItems.size()
+                ? bottomNavItems.get(currentActiveItemPosition) : null;
+        BottomNavToggleView newActiveToggleView = bottomNavItems.get(position);
+        //ends a transition driven by the progress, the items keep its incoming item active
+        clearSelectionProgress();
+        ArrayList<BottomNavToggleView> items = getBoundItems();
+        transitionAnimator.capture(items);
+        if (indicator != null && newActiveToggleView != null)
+            indicator.startMove();
+        if (currentActiveToggleView != null)
+            currentActiveToggleView.toggle();
+        if (newActiveToggleView != null) {
+            newActiveToggleView.toggle();
+            transitionAnimator.start(items, currentActiveToggleView, newActiveToggleView,
+                    newActiveToggleView.getAnimationDuration());
+        }
+
+        //changed the current active position
+        currentActiveItemPosition = position;
+        state.setSelectedPosition(position);
+        notifyItemSelected(position);
+        return true;
+    }
+
+    /////////////////////////////////////////
+    // SELECTION PROGRESS
+    /////////////////////////////////////////
+
+    /**
+     * Shows the selection part way between two items. The items are toggled once when the pair
+     * of items changes, each call after that only applies the transition frame, without any
+     * layout or allocation. The selection follows the closest item without notifying the
+     * {@link #navigationChangeListener}
+     *
+     * @param fromPosition item on the start side
+     * @param offset       from 0, at fromPosition, to 1, at the next item
+     */
+    void setSelectionProgress(int fromPosition, float offset) {
+        if (!itemsReady || fromPosition < 0 || fromPosition >= bottomNavItems.size()) return;
+        int toPosition = fromPosition + 1;
+        offset = Math.max(0f, Math.min(1f, offset));
+
+        //settled on an item
+        if (offset == 0f || toPosition >= bottomNavItems.size()) {
+            settleSelection(fromPosition);
+            return;
+        }
+        if (offset == 1f) {
+            settleSelection(toPosition);
+            return;
+        }
+
+        boolean samePair = (progressOutgoing == fromPosition && progressIncoming == toPosition)
+                || (progressOutgoing == toPosition && progressIncoming == fromPosition);
+        if (!samePair) {
+            clearSelectionProgress();
+            transitionAnimator.end();
+            if (currentActiveItemPosition != fromPosition && currentActiveItemPosition != toPosition)
+                selectImmediately(fromPosition);
+
+            //toggle the pair once, the frames only move them
+            int outgoing = currentActiveItemPosition;
+            int incoming = outgoing == fromPosition ? toPosition : fromPosition;
+            ArrayList<BottomNavToggleView> items = getBoundItems();
+            transitionAnimator.capture(items);
+            if (indicator != null)
+                indicator.startMove();
+            toggleItem(outgoing);
+            toggleItem(incoming);
+            transitionAnimator.startManual(items, bottomNavItems.get(outgoing), bottomNavItems.get(incoming));
+            progressOutgoing = outgoing;
+            progressIncoming = incoming;
+            currentActiveItemPosition = incoming;
+        }
+
+        transitionAnimator.setFraction(progressIncoming == toPosition ? offset : 1f - offset);
+        state.setSelectedPosition(offset < 0.5f ? fromPosition : toPosition);
+    }
+
+    /**
+     * Ends the transition driven by the progress with the given item active
+     */
+    private void settleSelection(int position) {
+        if (progressIncoming >= 0) {
+            boolean reached = progressIncoming == position;
+            clearSelectionProgress();
+            transitionAnimator.end();
+            if (!reached)
+                selectImmediately(position);
+        } else if (position != currentActiveItemPosition) {
+            selectImmediately(position);
+        }
+        state.setSelectedPosition(position);
+    }
+
+    private void clearSelectionProgress() {
+        progressOutgoing = -1;
+        progressIncoming = -1;
+    }
+
+    /**
+     * Activates the item without a transition or notification
+     */
+    private void selectImmediately(int position) {
+        transitionAnimator.end();
+        if (position == currentActiveItemPosition) return;
+        if (currentActiveItemPosition < bottomNavItems.size())
+            toggleItem(currentActiveItemPosition);
+        toggleItem(position);
+        currentActiveItemPosition = position;
+        state.setSelectedPosition(position);
+        host.invalidate();
+        notifyItemSelected(position);
+    }
+
+    /////////////////////////////////////////
+    // STATE
+    /////////////////////////////////////////
+
+    /**
+     * Schedules {@link #renderState()} for the next frame, at most once per frame.
+     * Can be called from any thread, the other threads go through the main thread first: before
+     * API 24 a post from another thread while the host is detached is lost
+     */
+    private void scheduleRenderState() {
+        if (!state.markDirty()) return;
+        if (Looper.myLooper() == Looper.getMainLooper())
+            host.postOnAnimation(renderStateRunnable);
+        else
+            mainHandler.post(postRenderStateRunnable);
+    }
+
+    private void postRenderState() {
+        host.postOnAnimation(renderStateRunnable);
+    }
+
+    /**
+     * Renders the latest snapshot of the {@link #state}
+     */
+    private void renderState() {
+        state.clearDirty();
+        if (!itemsReady) return;
+
+        //the progress drives the selection while it runs
+        int selectedPosition = progressIncoming >= 0 ? BottomNavState.NO_POSITION : state.getSelectedPosition();
+        //a position out of the items, requested or restored, keeps the current item
+        if (selectedPosition >= bottomNavItems.size()) {
+            state.replaceSelectedPosition(selectedPosition, currentActiveItemPosition);
+            selectedPosition = BottomNavState.NO_POSITION;
+        }
+        if (selectedPosition >= 0 && selectedPosition < bottomNavItems.size()
+                && selectedPosition != currentActiveItemPosition
+                && setCurrentItem(selectedPosition) && navigationChangeListener != null)
+            navigationChangeListener.onNavigationChanged(getItemView(selectedPosition), selectedPosition);
+
+        int count = Math.min(bottomNavItems.size(), BottomNavState.MAX_POSITIONS);
+        for (int i = 0; i < count; i++) {
+            BottomNavToggleView item = bottomNavItems.get(i);
+            //the positions without a view get their badge when bound
+            if (item == null) continue;
+            String value = state.getBadgeValue(i);
+            //values are compared by reference, a new value is always a new update
+            if (value != renderedBadgeValues[i]) {
+                renderedBadgeValues[i] = value;
+                item.setBadgeText(value == BottomNavState.UNSET ? null : value);
+            }
+        }
+    }
+
+    ///////////////////////////////////////////
+    // IBottomNavigation
+    ///////////////////////////////////////////
+
+    void setNavigationChangeListener(BottomNavChangeListener navigationChangeListener) {
+        this.navigationChangeListener = navigationChangeListener;
+    }
+
+    void setNavigationIntentListener(BottomNavIntentListener navigationIntentListener) {
+        this.navigationIntentListener = navigationIntentListener;
+    }
+
+    void setIconAtlasEnabled(boolean enabled) {
+        if (iconAtlasEnabled == enabled) return;
+        iconAtlasEnabled = enabled;
+        updateIconAtlas();
+    }
+
+    /**
+     * Rasterizes the icons of the items into the {@link #iconAtlas}, or restores their own icons
+     * when the atlas is disabled
+     */
+    private void updateIconAtlas() {
+        if (!itemsReady) return;
+        iconAtlasDirty = false;
+        //the recycled views change their icon as they are bound
+        iconAtlas = iconAtlasEnabled && !recyclingItems ? BottomNavIconAtlas.build(host.getResources(), bottomNavItems) : null;
+        for (int i = 0; i < bottomNavItems.size(); i++) {
+            BottomNavToggleView item = bottomNavItems.get(i);
+            if (item == null) continue;
+            Drawable source = item.getSourceIcon();
+            item.setAtlasIcon(iconAtlas != null && source != null ? iconAtlas.newRegion(i, source) : null);
+        }
+    }
+
+    private void updateIconAtlasIfDirty() {
+        if (iconAtlasDirty)
+            updateIconAtlas();
+    }
+
+    void setIndicatorEnabled(boolean enabled) {
+        if (indicatorEnabled == enabled) return;
+        indicatorEnabled = enabled;
+        updateIndicator();
+    }
+
+    /**
+     * Moves the shape from the items to the {@link #indicator}, or back to the items
+     */
+    private void updateIndicator() {
+        if (!itemsReady) return;
+        indicator = null;
+        if (indicatorEnabled && !recyclingItems && !bottomNavItems.isEmpty()) {
+            Drawable shape = bottomNavItems.get(Math.min(currentActiveItemPosition, bottomNavItems.size() - 1))
+                    .newIndicatorShape();
+            if (shape != null)
+                indicator = new BottomNavIndicator(shape);
+        }
+        for (BottomNavToggleView item : bottomNavItems) {
+            if (item != null)
+                item.setShapeVisible(indicator == null);
+        }
+        host.invalidate();
+    }
+
+    /**
+     * Must be called from the host before drawing its children
+     */
+    void drawIndicator(Canvas canvas) {
+        if (indicator != null && currentActiveItemPosition < bottomNavItems.size())
+            indicator.draw(canvas, bottomNavItems.get(currentActiveItemPosition));
+    }
+
+    void setQueueNavigation(boolean queueNavigation) {
+        this.queueNavigation = queueNavigation;
+        if (!queueNavigation)
+            queuedView = null;
+    }
+
+    void setTypeface(Typeface typeface) {
+        //kept for the items added later
+        currentTypeface = typeface;
+        updateTitleStyle();
+    }
+
+    /**
+     * Measures the shown titles with the {@link #currentTypeface} and {@link #titleLocale} in the
+     * background, then applies them to all the items in one pass, from the cached metrics
+     */
+    private void updateTitleStyle() {
+        Typeface typeface = currentTypeface;
+        Locale locale = titleLocale;
+        int generation = ++titleStyleGeneration;
+
+        ArrayList<String> titles = new ArrayList<>(bottomNavItems.size());
+        ArrayList<PrecomputedTextCompat.Params> params = new ArrayList<>(bottomNavItems.size());
+        for (BottomNavToggleView btv : bottomNavItems) {
+            if (btv == null) continue;
+            PrecomputedTextCompat.Params titleParams = btv.newTitleParams(typeface, locale);
+            if (titleParams != null) {
+                titles.add(btv.getBottomNavToggleItem().getTitle());
+                params.add(titleParams);
+            }
+        }
+
+        Runnable apply = () -> {
+            if (generation != titleStyleGeneration) return;
+            for (BottomNavToggleView btv : bottomNavItems) {
+                if (btv == null) continue;
+                btv.setTitleTypeface(typeface);
+                btv.setTitleLocale(locale);
+            }
+        };
+        if (titles.isEmpty())
+            apply.run();
+        else
+            BottomNavTitleMetrics.computeAsync(titles, params, apply);
+    }
+
+    int getCurrentActiveItemPosition() {
+        int selectedPosition = state.getSelectedPosition();
+        //a position out of the items is dropped by the next frame
+        if (selectedPosition == BottomNavState.NO_POSITION
+                || (itemsReady && selectedPosition >= bottomNavItems.size()))
+            return currentActiveItemPosition;
+        return selectedPosition;
+    }
+
+    void setCurrentActiveItem(int position) {
+        if (position < 0) return;
+        state.setSelectedPosition(position);
+        scheduleRenderState();
+    }
+
+    void setBadgeValue(int position, String value) {
+        if (state.setBadgeValue(position, value))
+            scheduleRenderState();
+        else
+            Log.w(TAG, "Cannot set the badge of position " + position);
+    }
+
+    void setBadgeCount(int position, int count) {
+        //the labels are shared, the same count is not rendered again
+        setBadgeValue(position, BottomNavBadgeLabels.label(count, badgeCountCap, badgeDotMode));
+    }
+
+    void setBadgeCountCap(int cap) {
+        badgeCountCap = Math.max(1, Math.min(cap, BottomNavBadgeLabels.MAX_CAP));
+    }
+
+    void setBadgeDotMode(boolean dotMode) {
+        badgeDotMode = dotMode;
+    }
+
+    void setBadgeValues(SparseArray<String> values) {
+        for (int i = 0; i < values.size(); i++)
+            state.setBadgeValue(values.keyAt(i), values.valueAt(i));
+        scheduleRenderState();
+    }
+}
@@ -0,0 +1,16 @@
+package com.core.bottomnav;
+
+/**
+ * How the items are distributed horizontally, set with bnc_mode
+ */
+enum BottomNavDisplayMode {
+    SPREAD,
+    INSIDE,
+    PACKED;
+
+    static BottomNavDisplayMode fromAttribute(int mode) {
+        if (mode >= 0 && mode < values().length)
+            return values()[mode];
+        return SPREAD;
+    }
+}
@@ -0,0 +1,178 @@
+package com.core.bottomnav;
+
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.DecelerateInterpolator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.coordinatorlayout.widget.CoordinatorLayout;
+import androidx.core.view.ViewCompat;
+
+/**
+ * Slides the bar out of the screen while the content scrolls down and back while it scrolls up,
+ * with the translation only, so the screen is not laid out again on each frame. On fling or
+ * when the scroll stops half way, the bar snaps with a single reused animator.
+ * <p>
+ * Set on the bar with {@code app:layout_behavior="com.core.bottomnav.BottomNavHideOnScrollBehavior"},
+ * needs the androidx.coordinatorlayout dependency
+ *
+ * @param <V> the bar
+ */
+@SuppressWarnings("unused")
+public class BottomNavHideOnScrollBehavior<V extends View> extends CoordinatorLayout.Behavior<V> {
+
+    private static final int SNAP_DURATION = 225;
+
+    /**
+     * Notified each time the bar moves, to adjust the content insets without a layout pass
+     */
+    public interface OnOffsetChangedListener {
+
+        /**
+         * @param bar    that moved
+         * @param offset hidden part of the bar in pixels, 0 when fully shown
+         */
+        void onOffsetChanged(View bar, int offset);
+    }
+
+    private int offset;
+    //direction of the last scroll, positive when the content scrolls down
+    private int lastScrollDirection;
+
+    //created once and reused by every snap
+    private ValueAnimator snapAnimator;
+    private V snappingChild;
+
+    @Nullable
+    private OnOffsetChangedListener offsetChangedListener;
+
+    public BottomNavHideOnScrollBehavior() {
+    }
+
+    public BottomNavHideOnScrollBehavior(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public void setOnOffsetChangedListener(@Nullable OnOffsetChangedListener offsetChangedListener) {
+        this.offsetChangedListener = offsetChangedListener;
+    }
+
+    /**
+     * @return hidden part of the bar in pixels, 0 when fully shown
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Slides the bar back on the screen
+     */
+    public void slideUp(@NonNull V child) {
+        snapTo(child, 0);
+    }
+
+    /**
+     * Slides the bar out of the screen
+     */
+    public void slideDown(@NonNull V child) {
+        snapTo(child, getHideDistance(child));
+    }
+
+    /////////////////////////////////////////
+    // NESTED SCROLL
+    /////////////////////////////////////////
+
+    @Override
+    public boolean onStartNestedScroll(@NonNull CoordinatorLayout coordinatorLayout, @NonNull V child,
+                                       @NonNull View directTargetChild, @NonNull View target, int axes, int type) {
+        return (axes & ViewCompat.SCROLL_AXIS_VERTICAL) != 0;
+    }
+
+    @Override
+    public void onNestedScroll(@NonNull CoordinatorLayout coordinatorLayout, @NonNull V child, @NonNull View target,
+                               int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int type) {
+        //the fling is handled by the snap, see onNestedPreFling
+        if (type != ViewCompat.TYPE_TOUCH || dyConsumed == 0) return;
+
+        cancelSnap();
+        lastScrollDirection = dyConsumed;
+        setOffset(child, offset + dyConsumed);
+    }
+
+    @Override
+    public boolean onNestedPreFling(@NonNull CoordinatorLayout coordinatorLayout, @NonNull V child, @NonNull View target,
+                                    float velocityX, float velocityY) {
+        if (velocityY > 0)
+            slideDown(child);
+        else if (velocityY < 0)
+            slideUp(child);
+        //the content still flings
+        return false;
+    }
+
+    @Override
+    public void onStopNestedScroll(@NonNull CoordinatorLayout coordinatorLayout, @NonNull V child,
+                                   @NonNull View target, int type) {
+        if (type != ViewCompat.TYPE_TOUCH || isSnapping()) return;
+
+        //stopped half way, finish in the direction of the last scroll
+        int hideDistance = getHideDistance(child);
+        if (offset > 0 && offset < hideDistance)
+            snapTo(child, lastScrollDirection > 0 ? hideDistance : 0);
+    }
+
+    /////////////////////////////////////////
+    // OFFSET
+    /////////////////////////////////////////
+
+    private void setOffset(V child, int newOffset) {
+        newOffset = Math.max(0, Math.min(newOffset, getHideDistance(child)));
+        if (newOffset == offset) return;
+        offset = newOffset;
+        child.setTranslationY(newOffset);
+        if (offsetChangedListener != null)
+            offsetChangedListener.onOffsetChanged(child, newOffset);
+    }
+
+    private int getHideDistance(V child) {
+        ViewGroup.LayoutParams lp = child.getLayoutParams();
+        int bottomMargin = lp instanceof ViewGroup.MarginLayoutParams ? ((ViewGroup.MarginLayoutParams) lp).bottomMargin : 0;
+        return child.getHeight() + bottomMargin;
+    }
+
+    /////////////////////////////////////////
+    // SNAP
+    /////////////////////////////////////////
+
+    private void snapTo(V child, int target) {
+        cancelSnap();
+        if (target == offset) return;
+
+        if (snapAnimator == null) {
+            snapAnimator = ValueAnimator.ofInt(offset, target);
+            snapAnimator.setDuration(SNAP_DURATION);
+            snapAnimator.setInterpolator(new DecelerateInterpolator());
+            snapAnimator.addUpdateListener(animation -> {
+                if (snappingChild != null)
+                    setOffset(snappingChild, (int) animation.getAnimatedValue());
+            });
+        } else {
+            snapAnimator.setIntValues(offset, target);
+        }
+        snappingChild = child;
+        snapAnimator.start();
+    }
+
+    private boolean isSnapping() {
+        return snapAnimator != null && snapAnimator.isRunning();
+    }
+
+    private void cancelSnap() {
+        if (isSnapping())
+            snapAnimator.cancel();
+    }
+}
@@ -0,0 +1,176 @@
+package com.core.bottomnav;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * The icons of all the items rasterized once, in their active and inactive colors, into a single
+ * bitmap. The items draw their icon with a {@link Region} of the atlas, so toggling an item only
+ * changes the copied region, vector icons are never tessellated or tinted again
+ */
+class BottomNavIconAtlas {
+
+    private final Bitmap bitmap;
+    //regions of each item, inactive icons on the first row and active ones on the second
+    private final Rect[] inactiveRegions;
+    private final Rect[] activeRegions;
+
+    private BottomNavIconAtlas(Bitmap bitmap, Rect[] inactiveRegions, Rect[] activeRegions) {
+        this.bitmap = bitmap;
+        this.inactiveRegions = inactiveRegions;
+        this.activeRegions = activeRegions;
+    }
+
+    /**
+     * Rasterizes the icons of the items at their icon size
+     *
+     * @return the atlas, null if no item has an icon to draw
+     */
+    @Nullable
+    static BottomNavIconAtlas build(Resources res, List<BottomNavToggleView> items) {
+        int count = items.size();
+        int width = 0;
+        int rowHeight = 0;
+        for (int i = 0; i < count; i++) {
+            BottomNavToggleItem item = items.get(i).getBottomNavToggleItem();
+            width += iconWidth(item);
+            rowHeight = Math.max(rowHeight, iconHeight(item));
+        }
+        if (width <= 0 || rowHeight <= 0) return null;
+
+        Bitmap bitmap = Bitmap.createBitmap(width, rowHeight * 2, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Rect[] inactiveRegions = new Rect[count];
+        Rect[] activeRegions = new Rect[count];
+
+        int left = 0;
+        for (int i = 0; i < count; i++) {
+            BottomNavToggleView view = items.get(i);
+            BottomNavToggleItem item = view.getBottomNavToggleItem();
+            int iconWidth = iconWidth(item);
+            int iconHeight = iconHeight(item);
+            inactiveRegions[i] = new Rect(left, 0, left + iconWidth, iconHeight);
+            activeRegions[i] = new Rect(left, rowHeight, left + iconWidth, rowHeight + iconHeight);
+
+            Drawable icon = copyOf(res, view.getSourceIcon());
+            if (icon != null) {
+                rasterize(canvas, icon, inactiveRegions[i], item.getColorInactive());
+                rasterize(canvas, icon, activeRegions[i], item.getColorActive());
+            }
+            left += iconWidth;
+        }
+        return new BottomNavIconAtlas(bitmap, inactiveRegions, activeRegions);
+    }
+
+    private static int iconWidth(BottomNavToggleItem item) {
+        return (int) Math.ceil(item.getIconWidth());
+    }
+
+    private static int iconHeight(BottomNavToggleItem item) {
+        return (int) Math.ceil(item.getIconHeight());
+    }
+
+    /**
+     * @return a copy that can be tinted without changing the icon shown by the item
+     */
+    @Nullable
+    private static Drawable copyOf(Resources res, @Nullable Drawable icon) {
+        if (icon == null) return null;
+        Drawable.ConstantState state = icon.getConstantState();
+        return state == null ? null : state.newDrawable(res).mutate();
+    }
+
+    private static void rasterize(Canvas canvas, Drawable icon, Rect region, int color) {
+        icon.setBounds(region);
+        ViewUtils.updateDrawableColor(icon, color);
+        icon.draw(canvas);
+    }
+
+    /**
+     * @param position of the item
+     * @return the drawable of the item, showing its active icon while the item is active
+     */
+    Region newRegion(int position, Drawable source) {
+        return new Region(this, position, source);
+    }
+
+    /**
+     * Draws the icon of an item from the atlas
+     */
+    static class Region extends Drawable {
+
+        private final BottomNavIconAtlas atlas;
+        private final int position;
+        //icon the region was rasterized from
+        private final Drawable source;
+        private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        //the active icon is shown while the item is active
+        private boolean active;
+
+        private Region(BottomNavIconAtlas atlas, int position, Drawable source) {
+            this.atlas = atlas;
+            this.position = position;
+            this.source = source;
+        }
+
+        Drawable getSource() {
+            return source;
+        }
+
+        /**
+         * Shows the active or the inactive icon, called by the item as it is toggled
+         */
+        void setActive(boolean active) {
+            if (this.active == active) return;
+            this.active = active;
+            invalidateSelf();
+        }
+
+        private Rect region() {
+            return active ? atlas.activeRegions[position] : atlas.inactiveRegions[position];
+        }
+
+        @Override
+        public void draw(@NonNull Canvas canvas) {
+            canvas.drawBitmap(atlas.bitmap, region(), getBounds(), paint);
+        }
+
+        @Override
+        public int getIntrinsicWidth() {
+            return atlas.inactiveRegions[position].width();
+        }
+
+        @Override
+        public int getIntrinsicHeight() {
+            return atlas.inactiveRegions[position].height();
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+            paint.setAlpha(alpha);
+            invalidateSelf();
+        }
+
+        @Override
+        public void setColorFilter(@Nullable ColorFilter colorFilter) {
+            paint.setColorFilter(colorFilter);
+            invalidateSelf();
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+}
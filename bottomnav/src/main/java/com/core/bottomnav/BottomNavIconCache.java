@@ -0,0 +1,185 @@
+package com.core.bottomnav;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the icons set with {@link BottomNavToggleView#setIconSource(String, BottomNavIconLoader)}.
+ * The icons are decoded on background threads, downsampled to the icon size and kept in an
+ * LRU cache shared by all the items, keyed by source and size.
+ * <p>
+ * Must be used from the main thread, where the loaded icons are delivered
+ */
+class BottomNavIconCache {
+
+    private static final String TAG = "BNIconCache";
+    private static final int THREAD_COUNT = 2;
+
+    private static BottomNavIconCache instance;
+
+    private final LruCache<String, Bitmap> bitmaps;
+    private final Executor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    //views waiting for each key, a key is only loaded once at a time
+    private final HashMap<String, ArrayList<WeakReference<BottomNavToggleView>>> pending = new HashMap<>();
+
+    static BottomNavIconCache get() {
+        if (instance == null) {
+            //icons are small, a thirty-second of the heap holds a lot of them
+            int maxBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / 32, Integer.MAX_VALUE);
+            instance = new BottomNavIconCache(maxBytes, Executors.newFixedThreadPool(THREAD_COUNT, runnable -> {
+                Thread thread = new Thread(runnable, "BottomNavIcon");
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+        return instance;
+    }
+
+    /**
+     * Replaces the cache used by the items, null to create the default one again. Used by the tests
+     */
+    static void setInstance(@Nullable BottomNavIconCache cache) {
+        instance = cache;
+    }
+
+    /**
+     * @param maxBytes of the cached bitmaps
+     * @param executor decoding the icons
+     */
+    BottomNavIconCache(int maxBytes, Executor executor) {
+        this.executor = executor;
+        bitmaps = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+    }
+
+    static String key(String source, int width, int height) {
+        return source + '@' + width + 'x' + height;
+    }
+
+    /**
+     * @return the loader used when none is given, opening the source as an Uri:
+     * file, content and android.resource
+     */
+    static BottomNavIconLoader uriLoader(Context context) {
+        ContentResolver resolver = context.getApplicationContext().getContentResolver();
+        return source -> resolver.openInputStream(Uri.parse(source));
+    }
+
+    @Nullable
+    Bitmap getBitmap(String key) {
+        return bitmaps.get(key);
+    }
+
+    /**
+     * Loads the icon in the background, {@link BottomNavToggleView#onIconLoaded(String, Bitmap)}
+     * is called on the main thread if the view is still alive
+     */
+    void load(String source, int width, int height, BottomNavIconLoader loader, BottomNavToggleView view) {
+        String key = key(source, width, height);
+        ArrayList<WeakReference<BottomNavToggleView>> views = pending.get(key);
+        if (views != null) {
+            views.add(new WeakReference<>(view));
+            return;
+        }
+        views = new ArrayList<>(1);
+        views.add(new WeakReference<>(view));
+        pending.put(key, views);
+
+        executor.execute(() -> {
+            Bitmap bitmap = null;
+            try {
+                bitmap = decode(loader, source, width, height);
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Cannot load the icon " + source, e);
+            }
+            Bitmap result = bitmap;
+            mainHandler.post(() -> deliver(key, result));
+        });
+    }
+
+    private void deliver(String key, @Nullable Bitmap bitmap) {
+        ArrayList<WeakReference<BottomNavToggleView>> views = pending.remove(key);
+        if (bitmap == null || views == null) return;
+
+        bitmaps.put(key, bitmap);
+        for (WeakReference<BottomNavToggleView> reference : views) {
+            BottomNavToggleView view = reference.get();
+            if (view != null)
+                view.onIconLoaded(key, bitmap);
+        }
+    }
+
+    /**
+     * Decodes the image at the exact size, reading the source once
+     */
+    @Nullable
+    private static Bitmap decode(BottomNavIconLoader loader, String source, int width, int height) throws IOException {
+        byte[] data;
+        try (InputStream in = loader.open(source)) {
+            if (in == null) return null;
+            data = readFully(in);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, width, height);
+
+        Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (bitmap == null) return null;
+        if (bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            Bitmap scaled = Bitmap.createScaledBitmap(bitmap, width, height, true);
+            if (scaled != bitmap)
+                bitmap.recycle();
+            bitmap = scaled;
+        }
+        return bitmap;
+    }
+
+    /**
+     * @return the largest power of two the image can be downsampled by while staying at least
+     * as large as the icon, so the pixels that would be scaled away are not decoded
+     */
+    static int sampleSize(int imageWidth, int imageHeight, int width, int height) {
+        int sampleSize = 1;
+        while (imageWidth / (sampleSize * 2) >= width && imageHeight / (sampleSize * 2) >= height)
+            sampleSize *= 2;
+        return sampleSize;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+            out.write(buffer, 0, read);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,19 @@
+package com.core.bottomnav;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Opens the encoded image of an icon source, called on a background thread.
+ * Used with {@link BottomNavToggleView#setIconSource(String, BottomNavIconLoader)} to load
+ * icons from the network, a file or memory
+ */
+public interface BottomNavIconLoader {
+
+    /**
+     * @param source of the icon, as passed to the view
+     * @return the encoded image, closed by the caller
+     * @throws IOException when the image cannot be opened, the placeholder is kept
+     */
+    InputStream open(String source) throws IOException;
+}
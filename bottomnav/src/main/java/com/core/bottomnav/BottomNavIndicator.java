@@ -0,0 +1,62 @@
+package com.core.bottomnav;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+/**
+ * Shape of the active item drawn once by the navigation container, behind the items, instead
+ * of a background per item. It slides from item to item during the transitions
+ */
+class BottomNavIndicator {
+
+    private final Drawable shape;
+
+    private final Rect bounds = new Rect();
+    private final Rect fromBounds = new Rect();
+    private boolean moving;
+
+    BottomNavIndicator(Drawable shape) {
+        this.shape = shape;
+    }
+
+    /**
+     * Starts moving from where the indicator is drawn
+     */
+    void startMove() {
+        fromBounds.set(bounds);
+        moving = !fromBounds.isEmpty();
+    }
+
+    /**
+     * @param target   item the indicator moves to, at its final layout position
+     * @param fraction progress of the move, from 0 to 1
+     */
+    void onMoveFrame(View target, float fraction) {
+        if (!moving) return;
+        bounds.set(
+                lerp(fromBounds.left, target.getLeft(), fraction),
+                lerp(fromBounds.top, target.getTop(), fraction),
+                lerp(fromBounds.right, target.getRight(), fraction),
+                lerp(fromBounds.bottom, target.getBottom(), fraction));
+    }
+
+    void endMove() {
+        moving = false;
+    }
+
+    private static int lerp(int from, int to, float fraction) {
+        return Math.round(from + (to - from) * fraction);
+    }
+
+    /**
+     * @param activeItem drawn under the indicator when it is not moving
+     */
+    void draw(Canvas canvas, View activeItem) {
+        if (!moving)
+            bounds.set(activeItem.getLeft(), activeItem.getTop(), activeItem.getRight(), activeItem.getBottom());
+        shape.setBounds(bounds);
+        shape.draw(canvas);
+    }
+}
@@ -0,0 +1,21 @@
+package com.core.bottomnav;
+
+import android.view.View;
+
+/**
+ * Notified as soon as the user is likely to navigate, on touch down or hover over an item,
+ * before {@link BottomNavChangeListener#onNavigationChanged(View, int)}. Can be used to start
+ * loading the destination early
+ */
+public interface BottomNavIntentListener {
+
+    /**
+     * The user pressed or is hovering an item that is not the active one
+     */
+    void onNavigationIntent(View view, int position);
+
+    /**
+     * The previous intent will not lead to a navigation change
+     */
+    void onNavigationIntentCancelled(View view, int position);
+}
@@ -0,0 +1,65 @@
+package com.core.bottomnav;
+
+import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Describes an item submitted with {@code submitItems}. The id must be stable, items with the
+ * same id are kept and only rebound when their content changed
+ */
+public final class BottomNavItemSpec {
+
+    private final long id;
+    private final String title;
+    private final Drawable icon;
+    private final BottomNavToggleItem item;
+
+    public BottomNavItemSpec(long id, @Nullable String title, @Nullable Drawable icon) {
+        this.id = id;
+        this.title = title;
+        this.icon = icon;
+        this.item = null;
+    }
+
+    /**
+     * Creates the new items from the given {@link BottomNavToggleItem}, its title and icon are
+     * the ones rebound when the item changes
+     *
+     * @param id   stable id of the item
+     * @param item built with {@link BottomNavToggleItem.Builder}
+     */
+    public BottomNavItemSpec(long id, BottomNavToggleItem item) {
+        this.id = id;
+        this.title = item.getTitle();
+        this.icon = item.getIcon();
+        this.item = item;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Nullable
+    public String getTitle() {
+        return title;
+    }
+
+    @Nullable
+    public Drawable getIcon() {
+        return icon;
+    }
+
+    @Nullable
+    public BottomNavToggleItem getItem() {
+        return item;
+    }
+
+    /**
+     * @return true if the item shows the same content, the icons are compared by reference
+     */
+    boolean hasSameContent(BottomNavItemSpec other) {
+        return TextUtils.equals(title, other.title) && icon == other.icon;
+    }
+}
@@ -0,0 +1,426 @@
+package com.core.bottomnav;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Typeface;
+import android.os.Parcelable;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * BottomNavLayout
+ * <p>
+ * Same as {@link BottomNavConstraintView}, but places the items in a single row with a direct
+ * measure and layout pass instead of a constraint solver. It does not need the
+ * androidx.constraintlayout dependency, which can be excluded from the library
+ */
+
+@SuppressWarnings("unused")
+public class BottomNavLayout extends ViewGroup implements IBottomNavigation {
+
+    private final BottomNavController controller = new BottomNavController(this);
+
+    //default display mode
+    private BottomNavDisplayMode displayMode = BottomNavDisplayMode.SPREAD;
+
+    /**
+     * Constructors
+     */
+    public BottomNavLayout(@NonNull Context context) {
+        super(context);
+        init(context, null);
+    }
+
+    public BottomNavLayout(@NonNull Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(context, attrs);
+    }
+
+    public BottomNavLayout(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context, attrs);
+    }
+
+    /**
+     * Initialize
+     *
+     * @param context current context
+     * @param attrs   custom attributes
+     */
+    private void init(Context context, AttributeSet attrs) {
+        int mode = 0;
+        if (attrs != null) {
+            TypedArray ta = context.obtainStyledAttributes(attrs, com.core.bottomnav.R.styleable.BottomNavLayout, 0, 0);
+            try {
+                mode = ta.getInteger(com.core.bottomnav.R.styleable.BottomNavLayout_bnc_mode, mode);
+                controller.setQueueNavigation(ta.getBoolean(com.core.bottomnav.R.styleable.BottomNavLayout_bnc_queueNavigation, false));
+                controller.setIconAtlasEnabled(ta.getBoolean(com.core.bottomnav.R.styleable.BottomNavLayout_bnc_iconAtlas, false));
+                controller.setIndicatorEnabled(ta.getBoolean(com.core.bottomnav.R.styleable.BottomNavLayout_bnc_indicator, false));
+            } finally {
+                ta.recycle();
+            }
+        }
+
+        //sets appropriate display node
+        displayMode = BottomNavDisplayMode.fromAttribute(mode);
+    }
+
+    @Override
+    public void onViewAdded(View child) {
+        super.onViewAdded(child);
+        controller.onChildAdded(child);
+    }
+
+    @Override
+    public void onViewRemoved(View child) {
+        super.onViewRemoved(child);
+        controller.onChildRemoved(child);
+    }
+
+    @Override
+    protected void onFinishInflate() {
+        super.onFinishInflate();
+        controller.onChildrenReady();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        controller.onHostAttached();
+        //built in code, without inflation
+        controller.onChildrenReady();
+    }
+
+    /////////////////////////////////////////
+    // MEASURE AND LAYOUT
+    /////////////////////////////////////////
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        controller.onHostMeasure(widthMeasureSpec);
+
+        int horizontalPadding = getPaddingLeft() + getPaddingRight();
+        int verticalPadding = getPaddingTop() + getPaddingBottom();
+
+        int contentWidth = 0;
+        int contentHeight = 0;
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child.getVisibility() == GONE) continue;
+
+            MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+            child.measure(
+                    getChildMeasureSpec(widthMeasureSpec, horizontalPadding + lp.leftMargin + lp.rightMargin, lp.width),
+                    getChildMeasureSpec(heightMeasureSpec, verticalPadding + lp.topMargin + lp.bottomMargin, lp.height));
+            contentWidth += child.getMeasuredWidth() + lp.leftMargin + lp.rightMargin;
+            contentHeight = Math.max(contentHeight, child.getMeasuredHeight() + lp.topMargin + lp.bottomMargin);
+        }
+
+        setMeasuredDimension(
+                resolveSize(Math.max(contentWidth + horizontalPadding, getSuggestedMinimumWidth()), widthMeasureSpec),
+                resolveSize(Math.max(contentHeight + verticalPadding, getSuggestedMinimumHeight()), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        int left = getPaddingLeft();
+        int top = getPaddingTop();
+        int availableWidth = (r - l) - left - getPaddingRight();
+        int availableHeight = (b - t) - top - getPaddingBottom();
+
+        int count = 0;
+        int contentWidth = 0;
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child.getVisibility() == GONE) continue;
+            MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+            contentWidth += child.getMeasuredWidth() + lp.leftMargin + lp.rightMargin;
+            count++;
+        }
+
+        //distribute the free space like the matching constraint chain
+        float freeSpace = Math.max(availableWidth - contentWidth, 0);
+        float gap = 0;
+        float x = left;
+        switch (displayMode) {
+            case SPREAD:
+                gap = freeSpace / (count + 1);
+                x += gap;
+                break;
+            case INSIDE:
+                if (count > 1)
+                    gap = freeSpace / (count - 1);
+                else
+                    x += freeSpace / 2;
+                break;
+            case PACKED:
+                x += freeSpace / 2;
+                break;
+        }
+
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child.getVisibility() == GONE) continue;
+
+            MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+            int childWidth = child.getMeasuredWidth();
+            int childHeight = child.getMeasuredHeight();
+            int childLeft = Math.round(x) + lp.leftMargin;
+            //centered vertically, like the top and bottom constraints to the parent
+            int childTop = top + lp.topMargin
+                    + (availableHeight - lp.topMargin - lp.bottomMargin - childHeight) / 2;
+            child.layout(childLeft, childTop, childLeft + childWidth, childTop + childHeight);
+
+            x += lp.leftMargin + childWidth + lp.rightMargin + gap;
+        }
+
+        controller.onHostLayout();
+    }
+
+    @Override
+    protected boolean checkLayoutParams(ViewGroup.LayoutParams p) {
+        return p instanceof MarginLayoutParams;
+    }
+
+    @Override
+    protected LayoutParams generateDefaultLayoutParams() {
+        return new MarginLayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public LayoutParams generateLayoutParams(AttributeSet attrs) {
+        return new MarginLayoutParams(getContext(), attrs);
+    }
+
+    @Override
+    protected LayoutParams generateLayoutParams(ViewGroup.LayoutParams p) {
+        return new MarginLayoutParams(p);
+    }
+
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        controller.drawIndicator(canvas);
+        super.dispatchDraw(canvas);
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        controller.onHostConfigurationChanged();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        controller.onHostDetached();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        return controller.onSaveInstanceState(super.onSaveInstanceState());
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        super.onRestoreInstanceState(controller.onRestoreInstanceState(state));
+    }
+
+    /////////////////////////////////////////
+    // CURRENT ITEM SETTER
+    /////////////////////////////////////////
+    public Boolean setCurrentItem(int position) {
+        return controller.setCurrentItem(position);
+    }
+
+    ///////////////////////////////////////////
+    // PUBLIC METHODS
+    ///////////////////////////////////////////
+
+    /**
+     * Set the navigation change listener {@link BottomNavChangeListener}
+     *
+     * @param navigationChangeListener sets the passed parameters as listener
+     */
+    @Override
+    public void setNavigationChangeListener(BottomNavChangeListener navigationChangeListener) {
+        controller.setNavigationChangeListener(navigationChangeListener);
+    }
+
+    /**
+     * Shows the given items, diffed by id with the current ones. Only the new, removed, moved
+     * or changed items are updated, the items declared in xml are replaced
+     *
+     * @param specs of the items, in order
+     */
+    public void submitItems(List<BottomNavItemSpec> specs) {
+        controller.submitItems(specs);
+    }
+
+    /**
+     * Set the navigation intent listener {@link BottomNavIntentListener}, notified on touch down
+     * or hover over an item, before the navigation change
+     *
+     * @param navigationIntentListener sets the passed parameters as listener
+     */
+    @Override
+    public void setNavigationIntentListener(BottomNavIntentListener navigationIntentListener) {
+        controller.setNavigationIntentListener(navigationIntentListener);
+    }
+
+    /**
+     * Sets what happens to a click while the transition between the items is running
+     *
+     * @param queueNavigation true to apply the latest click when the transition ends,
+     *                        false to ignore the clicks until then
+     */
+    public void setQueueNavigation(boolean queueNavigation) {
+        controller.setQueueNavigation(queueNavigation);
+    }
+
+    /**
+     * Draws the icons of all the items from a single bitmap, rasterized once in their active
+     * and inactive colors, instead of drawing each icon again
+     *
+     * @param enabled true to use the icon atlas
+     */
+    public void setIconAtlasEnabled(boolean enabled) {
+        controller.setIconAtlasEnabled(enabled);
+    }
+
+    /**
+     * Draws the shape of the active item once, behind the items, and slides it between the
+     * items instead of fading a background in each item. The shape is the bt_shape of the
+     * active item, in its bt_shapeColor
+     *
+     * @param enabled true to use the sliding indicator
+     */
+    public void setIndicatorEnabled(boolean enabled) {
+        controller.setIndicatorEnabled(enabled);
+    }
+
+    /**
+     * Set the {@link Typeface} for the Text Elements of the View
+     *
+     * @param typeface to be used
+     */
+    @Override
+    public void setTypeface(Typeface typeface) {
+        controller.setTypeface(typeface);
+    }
+
+    /**
+     * Gets the current active position, including a change requested but not rendered yet
+     *
+     * @return active item position
+     */
+    @Override
+    public int getCurrentActiveItemPosition() {
+        return controller.getCurrentActiveItemPosition();
+    }
+
+    /**
+     * Sets the current active item on the next frame. Can be called from any thread
+     *
+     * @param position current position change
+     */
+    @Override
+    public void setCurrentActiveItem(int position) {
+        controller.setCurrentActiveItem(position);
+    }
+
+    /**
+     * Shows the selection part way between two items, for example from
+     * {@code onPageScrolled} of a pager. Does not allocate or request a layout while the same
+     * two items are scrolled, and does not notify the {@link BottomNavChangeListener}.
+     * Must be called from the main thread
+     *
+     * @param fromPosition item on the start side
+     * @param offset       from 0, at fromPosition, to 1, at the next item
+     */
+    @Override
+    public void setSelectionProgress(int fromPosition, float offset) {
+        controller.setSelectionProgress(fromPosition, offset);
+    }
+
+    /**
+     * Sets the badge value on the next frame. Can be called from any thread, rapid updates
+     * of the same position within a frame are merged and only the latest value is rendered
+     *
+     * @param position current position change
+     * @param value    value to be set in the badge
+     */
+    @Override
+    public void setBadgeValue(int position, String value) {
+        controller.setBadgeValue(position, value);
+    }
+
+    /**
+     * Sets several badge values, rendered together on the next frame.
+     * Can be called from any thread
+     *
+     * @param values badge values by position, null values hide the badge
+     */
+    @Override
+    public void setBadgeValues(SparseArray<String> values) {
+        controller.setBadgeValues(values);
+    }
+
+    /**
+     * Sets the badge to a count on the next frame, 0 or less hides it. Counts over the cap
+     * show the cap followed by a +, see {@link #setBadgeCountCap(int)}. The labels are shared,
+     * so the same count does not allocate and is not rendered again. Can be called from any thread
+     *
+     * @param position of the item
+     * @param count    to be shown in the badge
+     */
+    @Override
+    public void setBadgeCount(int position, int count) {
+        controller.setBadgeCount(position, count);
+    }
+
+    /**
+     * Sets the highest count shown by {@link #setBadgeCount(int, int)}, applied to the next
+     * counts set
+     *
+     * @param cap from 1 to 999, 99 by default
+     */
+    public void setBadgeCountCap(int cap) {
+        controller.setBadgeCountCap(cap);
+    }
+
+    /**
+     * Shows a dot instead of the count for the next counts set with
+     * {@link #setBadgeCount(int, int)}, to tell there is something new without a number
+     *
+     * @param dotMode true to show a dot
+     */
+    public void setBadgeDotMode(boolean dotMode) {
+        controller.setBadgeDotMode(dotMode);
+    }
+
+    /**
+     * Starts a group of badge updates, applied together on the next frame
+     * when {@link BottomNavBadgeTransaction#commit()} is called
+     *
+     * @return a new transaction
+     */
+    @Override
+    public BottomNavBadgeTransaction beginBadgeTransaction() {
+        return new BottomNavBadgeTransaction(this);
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.core.bottomnav;
+
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * Builds {@link BottomNavToggleView}s ahead of time, while the main thread is idle, so a bar
+ * recreated after a configuration change or a screen transition does not pay for them on its
+ * first frame. The views are created and measured inactive, the title is laid out once the
+ * item is bound and activated.
+ * <p>
+ * The views are kept in a bounded pool by style and density, and are built on the application
+ * context with a copy of the theme, so the pool never holds on to an activity. The bars adopt
+ * them for the items they create with {@code submitItems}, and {@link #obtain(Context)} gives
+ * them to the apps building the items in code. Must be used from the main thread
+ */
+@SuppressWarnings("unused")
+public final class BottomNavPrewarmer {
+
+    //constants
+    private static final int MAX_VIEWS_PER_STYLE = 10;
+    private static final int MAX_STYLES = 3;
+
+    /**
+     * Views built for one style, the most recently used style first
+     */
+    private static final class Pool {
+        final BottomNavResources resources;
+        final int densityDpi;
+        final ArrayDeque<BottomNavToggleView> views = new ArrayDeque<>();
+
+        Pool(BottomNavResources resources, int densityDpi) {
+            this.resources = resources;
+            this.densityDpi = densityDpi;
+        }
+    }
+
+    private static final ArrayList<Pool> pools = new ArrayList<>(MAX_STYLES);
+
+    private static int hitCount;
+    private static int missCount;
+
+    private BottomNavPrewarmer() {
+    }
+
+    /**
+     * Builds and measures the views in the style of the context, one per idle pass of the main
+     * thread, until the pool of the style holds the given count
+     *
+     * @param context whose theme styles the views, it is not kept
+     * @param count   of views to keep ready, at most 10
+     */
+    @MainThread
+    public static void prewarm(@NonNull Context context, int count) {
+        //the theme is copied now, the context may be gone when the queue is idle
+        Context themedContext = new ContextThemeWrapper(context.getApplicationContext(), 0);
+        themedContext.getTheme().setTo(context.getTheme());
+        int target = Math.min(count, MAX_VIEWS_PER_STYLE);
+
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                Pool pool = poolOf(themedContext);
+                if (pool.views.size() >= target) return false;
+
+                BottomNavToggleView view = new BottomNavToggleView(new MutableContextWrapper(themedContext));
+                //measures the icon, shape and padding, the title is created on the first activation
+                view.measure(View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED),
+                        View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+                pool.views.push(view);
+                //called again on the next idle pass
+                return pool.views.size() < target;
+            }
+        });
+    }
+
+    /**
+     * @param context of the bar, the view is moved to it
+     * @return a view built ahead of time in the style of the context, or a new one
+     */
+    @MainThread
+    @NonNull
+    public static BottomNavToggleView obtain(@NonNull Context context) {
+        BottomNavToggleView view = poll(context);
+        return view != null ? view : new BottomNavToggleView(context);
+    }
+
+    /**
+     * @param context of the bar, the view is moved to it
+     * @return a view built ahead of time in the style of the context, null if there is none
+     */
+    @MainThread
+    @Nullable
+    static BottomNavToggleView poll(Context context) {
+        Pool pool = findPool(context);
+        BottomNavToggleView view = pool != null ? pool.views.poll() : null;
+        if (view == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        ((MutableContextWrapper) view.getContext()).setBaseContext(context);
+        return view;
+    }
+
+    /**
+     * Drops the views of the pool, for example when the memory is low
+     */
+    @MainThread
+    public static void clear() {
+        pools.clear();
+    }
+
+    /**
+     * @return the number of views taken from the pool
+     */
+    public static int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of views asked for while the pool of their style was empty
+     */
+    public static int getMissCount() {
+        return missCount;
+    }
+
+    /////////////////////////////////////////
+    // POOLS
+    /////////////////////////////////////////
+
+    @Nullable
+    private static Pool findPool(Context context) {
+        BottomNavResources resources = BottomNavResources.get(context);
+        int densityDpi = context.getResources().getDisplayMetrics().densityDpi;
+        for (int i = 0; i < pools.size(); i++) {
+            Pool pool = pools.get(i);
+            if (pool.densityDpi == densityDpi && pool.resources.hasSameStyle(resources)) {
+                //most recently used first
+                if (i > 0) {
+                    pools.remove(i);
+                    pools.add(0, pool);
+                }
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    private static Pool poolOf(Context context) {
+        Pool pool = findPool(context);
+        if (pool == null) {
+            //drops the least recently used style
+            if (pools.size() >= MAX_STYLES)
+                pools.remove(pools.size() - 1);
+            pool = new Pool(BottomNavResources.get(context), context.getResources().getDisplayMetrics().densityDpi);
+            pools.add(0, pool);
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,156 @@
+package com.core.bottomnav;
+
+import android.content.Context;
+import android.content.pm.ActivityInfo;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import java.util.WeakHashMap;
+
+/**
+ * Default colors, dimensions and drawables of the bottom navigation, resolved once per theme and
+ * configuration and shared by every {@link BottomNavToggleView} using them.
+ * <p>
+ * The drawables are shared through their {@link Drawable.ConstantState}, an item only gets its
+ * own copy with {@link Drawable#mutate()} when it needs a different tint. Must be used from the
+ * main thread
+ */
+class BottomNavResources {
+
+    //changes of the configuration the values depend on
+    private static final int CONFIG_CHANGES = ActivityInfo.CONFIG_UI_MODE | ActivityInfo.CONFIG_DENSITY
+            | ActivityInfo.CONFIG_FONT_SCALE | ActivityInfo.CONFIG_ORIENTATION
+            | ActivityInfo.CONFIG_SCREEN_SIZE | ActivityInfo.CONFIG_SMALLEST_SCREEN_SIZE;
+
+    //a new theme is created on most configuration changes, so the old entries are dropped with it.
+    //An activity handling the change itself keeps its theme, so each entry also checks its configuration
+    private static final WeakHashMap<Resources.Theme, BottomNavResources> cache = new WeakHashMap<>();
+
+    //configuration the values were resolved for
+    private final Configuration configuration;
+
+    final int colorActive;
+    final int colorInactive;
+    final float titleSize;
+    final float maxTitleWidth;
+    final float iconSize;
+    final int internalPadding;
+    final int titlePadding;
+
+    final int badgeTextSize;
+    final int badgeBackgroundColor;
+    final int badgeTextColor;
+    final int badgePadding;
+
+    @Nullable
+    private final Drawable.ConstantState iconState;
+    @Nullable
+    private final Drawable.ConstantState shapeState;
+    @Nullable
+    private final Drawable.ConstantState badgeBackgroundState;
+
+    /**
+     * @param context current context
+     * @return the resources of the theme of the context
+     */
+    static BottomNavResources get(Context context) {
+        Resources.Theme theme = context.getTheme();
+        BottomNavResources resources = cache.get(theme);
+        if (resources == null || (resources.configuration.diff(context.getResources().getConfiguration()) & CONFIG_CHANGES) != 0) {
+            resources = new BottomNavResources(context);
+            cache.put(theme, resources);
+        }
+        return resources;
+    }
+
+    private BottomNavResources(Context context) {
+        Resources res = context.getResources();
+        configuration = new Configuration(res.getConfiguration());
+        colorActive = ViewUtils.getThemeAccentColor(context);
+        colorInactive = ContextCompat.getColor(context, com.core.bottomnav.R.color.default_inactive_color);
+        titleSize = res.getDimension(com.core.bottomnav.R.dimen.default_nav_item_text_size);
+        maxTitleWidth = res.getDimension(com.core.bottomnav.R.dimen.default_nav_item_title_max_width);
+        iconSize = res.getDimension(com.core.bottomnav.R.dimen.default_icon_size);
+        internalPadding = (int) res.getDimension(com.core.bottomnav.R.dimen.default_nav_item_padding);
+        titlePadding = (int) res.getDimension(com.core.bottomnav.R.dimen.default_nav_item_text_padding);
+
+        badgeTextSize = (int) res.getDimension(com.core.bottomnav.R.dimen.default_nav_item_badge_text_size);
+        badgeBackgroundColor = ContextCompat.getColor(context, com.core.bottomnav.R.color.default_badge_background_color);
+        badgeTextColor = ContextCompat.getColor(context, com.core.bottomnav.R.color.default_badge_text_color);
+        badgePadding = (int) res.getDimension(com.core.bottomnav.R.dimen.default_nav_item_badge_padding);
+
+        iconState = constantStateOf(ContextCompat.getDrawable(context, com.core.bottomnav.R.drawable.default_icon));
+        shapeState = constantStateOf(ContextCompat.getDrawable(context, com.core.bottomnav.R.drawable.transition_background_drawable));
+
+        //the shared badge background carries the default tint, on its own state so the drawable
+        //of the resources loaded by the other views stays untouched
+        Drawable badgeBackground = ContextCompat.getDrawable(context, com.core.bottomnav.R.drawable.badge_background_white);
+        if (badgeBackground != null)
+            badgeBackground = badgeBackground.mutate();
+        ViewUtils.updateDrawableColor(badgeBackground, badgeBackgroundColor);
+        badgeBackgroundState = constantStateOf(badgeBackground);
+    }
+
+    /**
+     * @return true if the views built with either resources look the same
+     */
+    boolean hasSameStyle(BottomNavResources other) {
+        return other == this || (colorActive == other.colorActive
+                && colorInactive == other.colorInactive
+                && titleSize == other.titleSize
+                && maxTitleWidth == other.maxTitleWidth
+                && iconSize == other.iconSize
+                && internalPadding == other.internalPadding
+                && titlePadding == other.titlePadding
+                && badgeTextSize == other.badgeTextSize
+                && badgeBackgroundColor == other.badgeBackgroundColor
+                && badgeTextColor == other.badgeTextColor
+                && badgePadding == other.badgePadding);
+    }
+
+    @Nullable
+    private static Drawable.ConstantState constantStateOf(@Nullable Drawable drawable) {
+        return drawable == null ? null : drawable.getConstantState();
+    }
+
+    @Nullable
+    private static Drawable newDrawable(@Nullable Drawable.ConstantState state, Resources res) {
+        return state == null ? null : state.newDrawable(res);
+    }
+
+    /**
+     * @return a new default icon, sharing its state with the other items
+     */
+    @Nullable
+    Drawable newIcon(Context context) {
+        return newDrawable(iconState, context.getResources());
+    }
+
+    /**
+     * @param mutable true if the shape is going to be tinted
+     * @return a new default shape, shared with the other items unless mutable
+     */
+    @Nullable
+    Drawable newShape(Context context, boolean mutable) {
+        Drawable shape = newDrawable(shapeState, context.getResources());
+        return shape != null && mutable ? shape.mutate() : shape;
+    }
+
+    /**
+     * @param color of the badge background
+     * @return a new badge background, only mutated when the color is not the default one
+     */
+    @Nullable
+    Drawable newBadgeBackground(Context context, int color) {
+        Drawable background = newDrawable(badgeBackgroundState, context.getResources());
+        if (background != null && color != badgeBackgroundColor) {
+            background = background.mutate();
+            ViewUtils.updateDrawableColor(background, color);
+        }
+        return background;
+    }
+}
@@ -0,0 +1,611 @@
+package com.core.bottomnav;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.TypedArray;
+import android.graphics.Typeface;
+import android.os.Parcelable;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.widget.OverScroller;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * BottomNavScrollView
+ * <p>
+ * Navigation bar for more items than fit on the screen. The items are set with
+ * {@link #submitItems(List)} and scroll horizontally, only the visible ones are attached and
+ * their {@link BottomNavToggleView}s are recycled as they scroll out. The selection and badges
+ * are kept by position, so they work for the items off the screen too.
+ * <p>
+ * The items of the specs without a {@link BottomNavToggleItem} share the default style of the
+ * theme, the others get their own view
+ */
+
+@SuppressWarnings("unused")
+public class BottomNavScrollView extends ViewGroup implements IBottomNavigation {
+
+    //constants
+    private static final int DEFAULT_VISIBLE_ITEMS = 5;
+
+    //selection, badges and transitions, by position
+    private final BottomNavController controller = new BottomNavController(this, true);
+
+    //views of the visible items by position, and the views ready to be bound again
+    private final SparseArray<BottomNavToggleView> boundItems = new SparseArray<>();
+    private final ArrayDeque<BottomNavToggleView> recycledItems = new ArrayDeque<>();
+
+    private int visibleItemCount = DEFAULT_VISIBLE_ITEMS;
+    private int slotWidth;
+    private int viewportWidth;
+    private int itemHeightMeasureSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+    //item to show once the slots are measured, -1 when there is none
+    private int pendingRevealPosition = -1;
+
+    //horizontal scroll
+    private final OverScroller scroller;
+    private final int touchSlop;
+    private final int minFlingVelocity;
+    private final int maxFlingVelocity;
+    private VelocityTracker velocityTracker;
+    private float lastTouchX;
+    private float downTouchX;
+    private boolean dragging;
+
+    /**
+     * Constructors
+     */
+    public BottomNavScrollView(@NonNull Context context) {
+        this(context, null);
+    }
+
+    public BottomNavScrollView(@NonNull Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public BottomNavScrollView(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        scroller = new OverScroller(context);
+        ViewConfiguration configuration = ViewConfiguration.get(context);
+        touchSlop = configuration.getScaledTouchSlop();
+        minFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        maxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+        init(context, attrs);
+    }
+
+    /**
+     * Initialize
+     *
+     * @param context current context
+     * @param attrs   custom attributes
+     */
+    private void init(Context context, AttributeSet attrs) {
+        if (attrs != null) {
+            TypedArray ta = context.obtainStyledAttributes(attrs, com.core.bottomnav.R.styleable.BottomNavScrollView, 0, 0);
+            try {
+                visibleItemCount = Math.max(1, ta.getInteger(com.core.bottomnav.R.styleable.BottomNavScrollView_bnc_visibleItems, visibleItemCount));
+            } finally {
+                ta.recycle();
+            }
+        }
+        setHorizontalScrollBarEnabled(false);
+        //the selected item is kept on the screen
+        controller.setSelectionListener(this::scrollToShow);
+    }
+
+    /////////////////////////////////////////
+    // MEASURE AND LAYOUT
+    /////////////////////////////////////////
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+                ? getSuggestedMinimumWidth() : MeasureSpec.getSize(widthMeasureSpec);
+        viewportWidth = Math.max(0, width - getPaddingLeft() - getPaddingRight());
+        int itemCount = controller.getItemCount();
+        int newSlotWidth = itemCount == 0 ? 0 : viewportWidth / Math.min(itemCount, visibleItemCount);
+        if (newSlotWidth != slotWidth) {
+            slotWidth = newSlotWidth;
+            for (int i = 0; i < boundItems.size(); i++)
+                boundItems.valueAt(i).updateMeasurements(slotWidth);
+        }
+        itemHeightMeasureSpec = getChildMeasureSpec(heightMeasureSpec,
+                getPaddingTop() + getPaddingBottom(), LayoutParams.WRAP_CONTENT);
+
+        fillVisibleItems(false);
+
+        int contentHeight = 0;
+        for (int i = 0; i < boundItems.size(); i++) {
+            BottomNavToggleView item = boundItems.valueAt(i);
+            measureItem(item);
+            contentHeight = Math.max(contentHeight, item.getMeasuredHeight());
+        }
+
+        setMeasuredDimension(width, resolveSize(
+                Math.max(contentHeight + getPaddingTop() + getPaddingBottom(), getSuggestedMinimumHeight()),
+                heightMeasureSpec));
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        //the content may have shrunk, a restored item is shown right away
+        int scrollX = clampScroll(getScrollX());
+        if (pendingRevealPosition >= 0 && slotWidth > 0) {
+            scroller.forceFinished(true);
+            scrollX = revealScroll(pendingRevealPosition);
+            pendingRevealPosition = -1;
+        }
+        if (scrollX != getScrollX())
+            scrollTo(scrollX, 0);
+
+        fillVisibleItems(true);
+        for (int i = 0; i < boundItems.size(); i++)
+            layoutItem(boundItems.valueAt(i), boundItems.keyAt(i));
+        controller.onHostLayout();
+    }
+
+    private void measureItem(BottomNavToggleView item) {
+        item.measure(MeasureSpec.makeMeasureSpec(slotWidth, MeasureSpec.AT_MOST), itemHeightMeasureSpec);
+    }
+
+    /**
+     * Centers the item in its slot, the slots are in content coordinates
+     */
+    private void layoutItem(BottomNavToggleView item, int position) {
+        int width = item.getMeasuredWidth();
+        int height = item.getMeasuredHeight();
+        int left = getPaddingLeft() + position * slotWidth + (slotWidth - width) / 2;
+        int availableHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+        int top = getPaddingTop() + (availableHeight - height) / 2;
+        item.layout(left, top, left + width, top + height);
+    }
+
+    @Override
+    protected LayoutParams generateDefaultLayoutParams() {
+        return new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return true;
+    }
+
+    /////////////////////////////////////////
+    // RECYCLING
+    /////////////////////////////////////////
+
+    /**
+     * Attaches the views of the visible positions and recycles the others, without requesting
+     * a layout
+     *
+     * @param layoutNewItems true to measure and lay out the attached views right away, when
+     *                       called outside of a layout pass
+     */
+    private void fillVisibleItems(boolean layoutNewItems) {
+        int itemCount = controller.getItemCount();
+        if (slotWidth <= 0 || itemCount == 0) {
+            recycleItems(Integer.MAX_VALUE, Integer.MIN_VALUE);
+            return;
+        }
+        int viewportStart = getScrollX();
+        int viewportEnd = viewportStart + viewportWidth;
+        int first = Math.max(0, viewportStart / slotWidth);
+        int last = Math.min(itemCount - 1, Math.max(first, (viewportEnd - 1) / slotWidth));
+
+        recycleItems(first, last);
+        for (int position = first; position <= last; position++) {
+            if (boundItems.get(position) != null) continue;
+            BottomNavToggleView item = obtainItem(position);
+            boundItems.put(position, item);
+            addViewInLayout(item, -1, generateDefaultLayoutParams(), true);
+            if (layoutNewItems) {
+                measureItem(item);
+                layoutItem(item, position);
+            }
+        }
+    }
+
+    /**
+     * Detaches the views outside of the range into {@link #recycledItems}
+     */
+    private void recycleItems(int first, int last) {
+        for (int i = boundItems.size() - 1; i >= 0; i--) {
+            int position = boundItems.keyAt(i);
+            if (position >= first && position <= last) continue;
+            BottomNavToggleView item = boundItems.valueAt(i);
+            boundItems.removeAt(i);
+            controller.unbindItem(item);
+            removeViewInLayout(item);
+            //the views of a styled spec are not shared
+            if (item.getItemSpec() == null || item.getItemSpec().getItem() == null)
+                recycledItems.push(item);
+        }
+    }
+
+    private BottomNavToggleView obtainItem(int position) {
+        BottomNavItemSpec spec = controller.getItemSpec(position);
+        BottomNavToggleView item;
+        if (spec.getItem() != null) {
+            item = new BottomNavToggleView(getContext(), spec.getItem());
+            item.setItemSpec(spec);
+        } else {
+            item = recycledItems.poll();
+            //built ahead of time when prewarmed
+            if (item == null)
+                item = BottomNavPrewarmer.poll(getContext());
+            if (item == null)
+                item = new BottomNavToggleView(getContext());
+            item.bind(spec);
+        }
+        item.updateMeasurements(slotWidth);
+        controller.bindItem(item, position);
+        return item;
+    }
+
+    /////////////////////////////////////////
+    // SCROLL
+    /////////////////////////////////////////
+
+    private int getMaxScroll() {
+        return Math.max(0, controller.getItemCount() * slotWidth - viewportWidth);
+    }
+
+    private int clampScroll(int scrollX) {
+        return Math.max(0, Math.min(scrollX, getMaxScroll()));
+    }
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        //only the items scrolled in are laid out
+        fillVisibleItems(true);
+    }
+
+    @Override
+    public void computeScroll() {
+        if (scroller.computeScrollOffset()) {
+            scrollTo(clampScroll(scroller.getCurrX()), 0);
+            postInvalidateOnAnimation();
+        }
+    }
+
+    /**
+     * Scrolls the least needed to show the whole slot of the item
+     */
+    private void scrollToShow(int position) {
+        if (slotWidth <= 0) return;
+        int target = revealScroll(position);
+        if (target == getScrollX()) return;
+
+        scroller.forceFinished(true);
+        scroller.startScroll(getScrollX(), 0, target - getScrollX(), 0);
+        postInvalidateOnAnimation();
+    }
+
+    /**
+     * @return the closest scroll showing the whole slot of the item
+     */
+    private int revealScroll(int position) {
+        int slotStart = position * slotWidth;
+        int target = getScrollX();
+        if (slotStart < target)
+            target = slotStart;
+        else if (slotStart + slotWidth > target + viewportWidth)
+            target = slotStart + slotWidth - viewportWidth;
+        return clampScroll(target);
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                downTouchX = lastTouchX = event.getX();
+                //a touch stops the fling
+                dragging = !scroller.isFinished();
+                scroller.forceFinished(true);
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (!dragging && getMaxScroll() > 0 && Math.abs(event.getX() - downTouchX) > touchSlop)
+                    startDrag(event);
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                dragging = false;
+                break;
+        }
+        return dragging;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (velocityTracker == null)
+            velocityTracker = VelocityTracker.obtain();
+        velocityTracker.addMovement(event);
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                downTouchX = lastTouchX = event.getX();
+                scroller.forceFinished(true);
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (!dragging && getMaxScroll() > 0 && Math.abs(event.getX() - downTouchX) > touchSlop)
+                    startDrag(event);
+                if (dragging) {
+                    int delta = (int) (lastTouchX - event.getX());
+                    lastTouchX -= delta;
+                    scrollTo(clampScroll(getScrollX() + delta), 0);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (dragging) {
+                    velocityTracker.computeCurrentVelocity(1000, maxFlingVelocity);
+                    int velocity = (int) -velocityTracker.getXVelocity();
+                    if (Math.abs(velocity) > minFlingVelocity) {
+                        scroller.fling(getScrollX(), 0, velocity, 0, 0, getMaxScroll(), 0, 0);
+                        postInvalidateOnAnimation();
+                    }
+                }
+                endDrag();
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                endDrag();
+                return true;
+        }
+        return true;
+    }
+
+    private void startDrag(MotionEvent event) {
+        dragging = true;
+        lastTouchX = event.getX();
+        //the item under the touch gets a cancel, which cancels its navigation intent
+        ViewParent parent = getParent();
+        if (parent != null)
+            parent.requestDisallowInterceptTouchEvent(true);
+    }
+
+    private void endDrag() {
+        dragging = false;
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+    }
+
+    /////////////////////////////////////////
+    // HOST CALLBACKS
+    /////////////////////////////////////////
+
+    @Override
+    protected void onFinishInflate() {
+        super.onFinishInflate();
+        controller.onChildrenReady();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        controller.onHostAttached();
+        //built in code, without inflation
+        controller.onChildrenReady();
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        controller.onHostConfigurationChanged();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        controller.onHostDetached();
+        scroller.forceFinished(true);
+        endDrag();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        return controller.onSaveInstanceState(super.onSaveInstanceState());
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        super.onRestoreInstanceState(controller.onRestoreInstanceState(state));
+        //the slots are not measured yet, the item is shown on the next layout
+        pendingRevealPosition = controller.getCurrentActiveItemPosition();
+        requestLayout();
+    }
+
+    /////////////////////////////////////////
+    // CURRENT ITEM SETTER
+    /////////////////////////////////////////
+
+    /**
+     * Selects the item and scrolls it into view, without notifying the listener
+     *
+     * @param position of the item, on the screen or not
+     * @return false if the position is out of range or already selected
+     */
+    public Boolean setCurrentItem(int position) {
+        return controller.setCurrentItem(position);
+    }
+
+    ///////////////////////////////////////////
+    // PUBLIC METHODS
+    ///////////////////////////////////////////
+
+    /**
+     * Shows the given items. The selection moves with the selected item while it is kept,
+     * the badges stay on their position
+     *
+     * @param newSpecs of the items, in order
+     */
+    public void submitItems(List<BottomNavItemSpec> newSpecs) {
+        //every view is bound again
+        recycleItems(Integer.MAX_VALUE, Integer.MIN_VALUE);
+        controller.submitItems(newSpecs);
+        requestLayout();
+    }
+
+    /**
+     * Sets how many items fit on the screen, the others are scrolled to
+     *
+     * @param count of the visible items, 5 by default
+     */
+    public void setVisibleItemCount(int count) {
+        count = Math.max(1, count);
+        if (count == visibleItemCount) return;
+        visibleItemCount = count;
+        requestLayout();
+    }
+
+    /**
+     * Set the navigation change listener {@link BottomNavChangeListener}. The view is the one
+     * of the item, or this bar when the item is not on the screen
+     *
+     * @param navigationChangeListener sets the passed parameters as listener
+     */
+    @Override
+    public void setNavigationChangeListener(BottomNavChangeListener navigationChangeListener) {
+        controller.setNavigationChangeListener(navigationChangeListener);
+    }
+
+    /**
+     * Set the navigation intent listener {@link BottomNavIntentListener}, notified on touch down
+     * over an item, before the navigation change. Cancelled when the touch scrolls the bar
+     *
+     * @param navigationIntentListener sets the passed parameters as listener
+     */
+    @Override
+    public void setNavigationIntentListener(BottomNavIntentListener navigationIntentListener) {
+        controller.setNavigationIntentListener(navigationIntentListener);
+    }
+
+    /**
+     * Set the {@link Typeface} for the Text Elements of the View
+     *
+     * @param typeface to be used
+     */
+    @Override
+    public void setTypeface(Typeface typeface) {
+        //the recycled items get it when bound again
+        controller.setTypeface(typeface);
+    }
+
+    /**
+     * Gets the current active position, including a change requested but not rendered yet
+     *
+     * @return active item position
+     */
+    @Override
+    public int getCurrentActiveItemPosition() {
+        return controller.getCurrentActiveItemPosition();
+    }
+
+    /**
+     * Sets the current active item on the next frame. Can be called from any thread
+     *
+     * @param position current position change
+     */
+    @Override
+    public void setCurrentActiveItem(int position) {
+        controller.setCurrentActiveItem(position);
+    }
+
+    /**
+     * Shows the selection part way between two items and scrolls the bar with it, for example
+     * from {@code onPageScrolled} of a pager. The transition between the two items follows the
+     * offset, and the selection follows the closest item without notifying the
+     * {@link BottomNavChangeListener}. Must be called from the main thread
+     *
+     * @param fromPosition item on the start side
+     * @param offset       from 0, at fromPosition, to 1, at the next item
+     */
+    @Override
+    public void setSelectionProgress(int fromPosition, float offset) {
+        if (fromPosition < 0 || fromPosition >= controller.getItemCount()) return;
+        offset = Math.max(0f, Math.min(1f, offset));
+
+        controller.setSelectionProgress(fromPosition, offset);
+        //keeps the scrolled position in the middle
+        scroller.forceFinished(true);
+        scrollTo(clampScroll((int) ((fromPosition + offset + 0.5f) * slotWidth) - viewportWidth / 2), 0);
+    }
+
+    /**
+     * Sets the badge value on the next frame. Can be called from any thread, rapid updates
+     * of the same position within a frame are merged and only the latest value is rendered
+     *
+     * @param position current position change
+     * @param value    value to be set in the badge
+     */
+    @Override
+    public void setBadgeValue(int position, String value) {
+        controller.setBadgeValue(position, value);
+    }
+
+    /**
+     * Sets several badge values, rendered together on the next frame.
+     * Can be called from any thread
+     *
+     * @param values badge values by position, null values hide the badge
+     */
+    @Override
+    public void setBadgeValues(SparseArray<String> values) {
+        controller.setBadgeValues(values);
+    }
+
+    /**
+     * Sets the badge to a count on the next frame, 0 or less hides it. Counts over the cap
+     * show the cap followed by a +, see {@link #setBadgeCountCap(int)}. The labels are shared,
+     * so the same count does not allocate and is not rendered again. Can be called from any thread
+     *
+     * @param position of the item
+     * @param count    to be shown in the badge
+     */
+    @Override
+    public void setBadgeCount(int position, int count) {
+        controller.setBadgeCount(position, count);
+    }
+
+    /**
+     * Sets the highest count shown by {@link #setBadgeCount(int, int)}, applied to the next
+     * counts set
+     *
+     * @param cap from 1 to 999, 99 by default
+     */
+    public void setBadgeCountCap(int cap) {
+        controller.setBadgeCountCap(cap);
+    }
+
+    /**
+     * Shows a dot instead of the count for the next counts set with
+     * {@link #setBadgeCount(int, int)}, to tell there is something new without a number
+     *
+     * @param dotMode true to show a dot
+     */
+    public void setBadgeDotMode(boolean dotMode) {
+        controller.setBadgeDotMode(dotMode);
+    }
+
+    /**
+     * Starts a group of badge updates, applied together on the next frame
+     * when {@link BottomNavBadgeTransaction#commit()} is called
+     *
+     * @return a new transaction
+     */
+    @Override
+    public BottomNavBadgeTransaction beginBadgeTransaction() {
+        return new BottomNavBadgeTransaction(this);
+    }
+}
@@ -0,0 +1,92 @@
+package com.core.bottomnav;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Selected position and badge values of a navigation bar. Any thread can write to it without
+ * locks, the view reads the latest values once per frame and renders them
+ */
+class BottomNavState {
+
+    static final int NO_POSITION = -1;
+    static final int MAX_POSITIONS = 32;
+
+    //marks a position whose badge was never set, compared by reference
+    @SuppressWarnings("RedundantStringConstructorCall")
+    static final String UNSET = new String("");
+
+    private final AtomicInteger selectedPosition = new AtomicInteger(NO_POSITION);
+    private final AtomicReferenceArray<String> badgeValues = new AtomicReferenceArray<>(MAX_POSITIONS);
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    BottomNavState() {
+        for (int i = 0; i < MAX_POSITIONS; i++)
+            badgeValues.set(i, UNSET);
+    }
+
+    int getSelectedPosition() {
+        return selectedPosition.get();
+    }
+
+    void setSelectedPosition(int position) {
+        selectedPosition.set(position);
+    }
+
+    /**
+     * Sets the selected position only if none was set yet
+     */
+    void initSelectedPosition(int position) {
+        selectedPosition.compareAndSet(NO_POSITION, position);
+    }
+
+    /**
+     * Replaces a selected position that cannot be shown, unless another one was set meanwhile
+     */
+    void replaceSelectedPosition(int expected, int position) {
+        selectedPosition.compareAndSet(expected, position);
+    }
+
+    /**
+     * @return the badge value of the position, {@link #UNSET} if it was never set
+     */
+    String getBadgeValue(int position) {
+        if (position < 0 || position >= MAX_POSITIONS)
+            return UNSET;
+        return badgeValues.get(position);
+    }
+
+    /**
+     * @return false if the position is out of range
+     */
+    boolean setBadgeValue(int position, String value) {
+        if (position < 0 || position >= MAX_POSITIONS)
+            return false;
+        badgeValues.set(position, value);
+        return true;
+    }
+
+    /**
+     * Marks the state as changed
+     *
+     * @return true if the state was not already marked, so a frame has to be scheduled
+     */
+    boolean markDirty() {
+        return dirty.compareAndSet(false, true);
+    }
+
+    /**
+     * @return true if the state changed since it was last rendered
+     */
+    boolean isDirty() {
+        return dirty.get();
+    }
+
+    /**
+     * Clears the changed mark before the state is read
+     */
+    void clearDirty() {
+        dirty.set(false);
+    }
+}
@@ -0,0 +1,134 @@
+package com.core.bottomnav;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Layout;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.core.text.PrecomputedTextCompat;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measured titles shared by all the items of the process, keyed by text and text metrics:
+ * typeface, size, locale and the other attributes of the paint. The titles are kept as
+ * {@link PrecomputedTextCompat}, so a title view showing a cached title does not shape it again.
+ * <p>
+ * The titles of a new typeface or locale are computed in the background with
+ * {@link #computeAsync(ArrayList, ArrayList, Runnable)} and then applied on the main thread
+ */
+class BottomNavTitleMetrics {
+
+    private static final int MAX_TITLES = 256;
+
+    /**
+     * A title and its width in pixels, without the padding of the title
+     */
+    static final class Entry {
+        final PrecomputedTextCompat text;
+        final int width;
+
+        Entry(PrecomputedTextCompat text, int width) {
+            this.text = text;
+            this.width = width;
+        }
+    }
+
+    private static final class Key {
+        final String title;
+        final PrecomputedTextCompat.Params params;
+        //width the title is ellipsized to, 0 when it is not
+        final int maxWidth;
+
+        Key(String title, PrecomputedTextCompat.Params params, int maxWidth) {
+            this.title = title;
+            this.params = params;
+            this.maxWidth = maxWidth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return maxWidth == key.maxWidth && title.equals(key.title) && params.equals(key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * title.hashCode() + params.hashCode()) + maxWidth;
+        }
+    }
+
+    //thread safe, read on the main thread and filled from the background
+    private static final LruCache<Key, Entry> entries = new LruCache<>(MAX_TITLES);
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BottomNavTitle");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private BottomNavTitleMetrics() {
+    }
+
+    /**
+     * @return the cached title, measured on the calling thread the first time
+     */
+    @NonNull
+    static Entry get(String title, PrecomputedTextCompat.Params params) {
+        Key key = new Key(title, params, 0);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = compute(title, params);
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * @param maxWidth the title is ellipsized to, 0 or less when not limited
+     * @return the cached title, ellipsized if it is wider than maxWidth. Each width is only
+     * ellipsized once
+     */
+    @NonNull
+    static Entry getFitted(String title, PrecomputedTextCompat.Params params, int maxWidth) {
+        Entry entry = get(title, params);
+        if (maxWidth <= 0 || entry.width <= maxWidth)
+            return entry;
+
+        Key key = new Key(title, params, maxWidth);
+        Entry fitted = entries.get(key);
+        if (fitted == null) {
+            fitted = compute(TextUtils.ellipsize(title, params.getTextPaint(), maxWidth, TextUtils.TruncateAt.END), params);
+            entries.put(key, fitted);
+        }
+        return fitted;
+    }
+
+    private static Entry compute(CharSequence title, PrecomputedTextCompat.Params params) {
+        PrecomputedTextCompat text = PrecomputedTextCompat.create(title, params);
+        int width = (int) Math.ceil(Layout.getDesiredWidth(text, params.getTextPaint()));
+        return new Entry(text, width);
+    }
+
+    /**
+     * Measures the missing titles in the background
+     *
+     * @param titles     to measure
+     * @param params     of each title
+     * @param onComputed run on the main thread once all the titles are cached
+     */
+    static void computeAsync(ArrayList<String> titles, ArrayList<PrecomputedTextCompat.Params> params, Runnable onComputed) {
+        executor.execute(() -> {
+            for (int i = 0; i < titles.size(); i++)
+                get(titles.get(i), params.get(i));
+            mainHandler.post(onComputed);
+        });
+    }
+}
@@ -1,17 +1,31 @@
 package com.core.bottomnav;
 
+import android.content.Context;
+import android.content.res.Resources;
 import android.graphics.Color;
 import android.graphics.drawable.Drawable;
 
-class BottomNavToggleItem {
+import androidx.annotation.Nullable;
+
+/**
+ * Describes a {@link BottomNavToggleView}, built with {@link Builder} to create the view in code
+ * with {@link BottomNavToggleView#BottomNavToggleView(Context, BottomNavToggleItem)}.
+ * <p>
+ * Immutable once built, the view works on its own copy
+ */
+public final class BottomNavToggleItem {
+
+    static final int DEFAULT_ANIM_DURATION = 300;
 
     private Drawable icon;
+    private String iconSource;
     private Drawable shape;
     private String title = "";
 
     private int colorActive = Color.BLUE;
     private int colorInactive = Color.BLACK;
     private int shapeColor = Integer.MIN_VALUE;
+    private boolean showShapeAlways;
 
     private String badgeText;
     private int badgeTextColor = Color.WHITE;
@@ -24,10 +38,52 @@ class BottomNavToggleItem {
     private int titlePadding;
     private int internalPadding;
 
+    private boolean active;
+    private int duration = DEFAULT_ANIM_DURATION;
+    private boolean flatRender;
+
     BottomNavToggleItem() {
     }
 
-    Drawable getIcon() {
+    /**
+     * Copies the item, the drawables get their own instance so the copy can be shown by
+     * another view
+     *
+     * @param res of the context the copy is shown in
+     */
+    BottomNavToggleItem(Resources res, BottomNavToggleItem item) {
+        icon = newDrawable(res, item.icon);
+        iconSource = item.iconSource;
+        shape = newDrawable(res, item.shape);
+        title = item.title;
+        colorActive = item.colorActive;
+        colorInactive = item.colorInactive;
+        shapeColor = item.shapeColor;
+        showShapeAlways = item.showShapeAlways;
+        badgeText = item.badgeText;
+        badgeTextColor = item.badgeTextColor;
+        badgeBackgroundColor = item.badgeBackgroundColor;
+        titleSize = item.titleSize;
+        badgeTextSize = item.badgeTextSize;
+        iconWidth = item.iconWidth;
+        iconHeight = item.iconHeight;
+        titlePadding = item.titlePadding;
+        internalPadding = item.internalPadding;
+        active = item.active;
+        duration = item.duration;
+        flatRender = item.flatRender;
+    }
+
+    @Nullable
+    private static Drawable newDrawable(Resources res, @Nullable Drawable drawable) {
+        if (drawable == null) return null;
+        Drawable.ConstantState state = drawable.getConstantState();
+        //without a state the drawable cannot be copied, it only gets its own mutable state
+        return state == null ? drawable.mutate() : state.newDrawable(res);
+    }
+
+    @Nullable
+    public Drawable getIcon() {
         return icon;
     }
 
@@ -35,7 +91,17 @@ class BottomNavToggleItem {
         this.icon = icon;
     }
 
-    Drawable getShape() {
+    @Nullable
+    public String getIconSource() {
+        return iconSource;
+    }
+
+    void setIconSource(String iconSource) {
+        this.iconSource = iconSource;
+    }
+
+    @Nullable
+    public Drawable getShape() {
         return shape;
     }
 
@@ -43,7 +109,7 @@ class BottomNavToggleItem {
         this.shape = shape;
     }
 
-    int getShapeColor() {
+    public int getShapeColor() {
         return shapeColor;
     }
 
@@ -51,7 +117,15 @@ class BottomNavToggleItem {
         this.shapeColor = shapeColor;
     }
 
-    String getTitle() {
+    public boolean isShowShapeAlways() {
+        return showShapeAlways;
+    }
+
+    void setShowShapeAlways(boolean showShapeAlways) {
+        this.showShapeAlways = showShapeAlways;
+    }
+
+    public String getTitle() {
         return title;
     }
 
@@ -59,7 +133,7 @@ class BottomNavToggleItem {
         this.title = title;
     }
 
-    int getColorActive() {
+    public int getColorActive() {
         return colorActive;
     }
 
@@ -67,7 +141,7 @@ class BottomNavToggleItem {
         this.colorActive = colorActive;
     }
 
-    int getColorInactive() {
+    public int getColorInactive() {
         return colorInactive;
     }
 
@@ -75,7 +149,7 @@ class BottomNavToggleItem {
         this.colorInactive = colorInactive;
     }
 
-    float getTitleSize() {
+    public float getTitleSize() {
         return titleSize;
     }
 
@@ -83,7 +157,7 @@ class BottomNavToggleItem {
         this.titleSize = titleSize;
     }
 
-    float getIconWidth() {
+    public float getIconWidth() {
         return iconWidth;
     }
 
@@ -91,7 +165,7 @@ class BottomNavToggleItem {
         this.iconWidth = iconWidth;
     }
 
-    float getIconHeight() {
+    public float getIconHeight() {
         return iconHeight;
     }
 
@@ -99,7 +173,7 @@ class BottomNavToggleItem {
         this.iconHeight = iconHeight;
     }
 
-    int getTitlePadding() {
+    public int getTitlePadding() {
         return titlePadding;
     }
 
@@ -107,7 +181,7 @@ class BottomNavToggleItem {
         this.titlePadding = titlePadding;
     }
 
-    int getInternalPadding() {
+    public int getInternalPadding() {
         return internalPadding;
     }
 
@@ -115,7 +189,7 @@ class BottomNavToggleItem {
         this.internalPadding = internalPadding;
     }
 
-    int getBadgeTextColor() {
+    public int getBadgeTextColor() {
         return badgeTextColor;
     }
 
@@ -123,7 +197,7 @@ class BottomNavToggleItem {
         this.badgeTextColor = badgeTextColor;
     }
 
-    int getBadgeBackgroundColor() {
+    public int getBadgeBackgroundColor() {
         return badgeBackgroundColor;
     }
 
@@ -131,7 +205,7 @@ class BottomNavToggleItem {
         this.badgeBackgroundColor = badgeBackgroundColor;
     }
 
-    float getBadgeTextSize() {
+    public float getBadgeTextSize() {
         return badgeTextSize;
     }
 
@@ -139,11 +213,172 @@ class BottomNavToggleItem {
         this.badgeTextSize = badgeTextSize;
     }
 
-    String getBadgeText() {
+    @Nullable
+    public String getBadgeText() {
         return badgeText;
     }
 
     void setBadgeText(String badgeText) {
         this.badgeText = badgeText;
     }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    void setDuration(int duration) {
+        this.duration = duration;
+    }
+
+    public boolean isFlatRender() {
+        return flatRender;
+    }
+
+    void setFlatRender(boolean flatRender) {
+        this.flatRender = flatRender;
+    }
+
+    /////////////////////////////////////////
+    // BUILDER
+    /////////////////////////////////////////
+
+    /**
+     * Builds a {@link BottomNavToggleItem}, starting from the defaults of the theme. The icon
+     * and shape default to the ones of the library when not set
+     */
+    public static final class Builder {
+
+        private final BottomNavToggleItem item = new BottomNavToggleItem();
+        private final Resources res;
+
+        public Builder(Context context) {
+            res = context.getResources();
+            BottomNavResources resources = BottomNavResources.get(context);
+            item.colorActive = resources.colorActive;
+            item.colorInactive = resources.colorInactive;
+            item.titleSize = resources.titleSize;
+            item.iconWidth = resources.iconSize;
+            item.iconHeight = resources.iconSize;
+            item.internalPadding = resources.internalPadding;
+            item.titlePadding = resources.titlePadding;
+            item.badgeTextSize = resources.badgeTextSize;
+            item.badgeBackgroundColor = resources.badgeBackgroundColor;
+            item.badgeTextColor = resources.badgeTextColor;
+        }
+
+        public Builder setIcon(@Nullable Drawable icon) {
+            item.icon = icon;
+            return this;
+        }
+
+        /**
+         * @param iconSource Uri of the icon, loaded in the background,
+         *                   the default icon is shown until it is loaded
+         */
+        public Builder setIconSource(@Nullable String iconSource) {
+            item.iconSource = iconSource;
+            return this;
+        }
+
+        public Builder setIconSize(float width, float height) {
+            item.iconWidth = width;
+            item.iconHeight = height;
+            return this;
+        }
+
+        public Builder setShape(@Nullable Drawable shape) {
+            item.shape = shape;
+            return this;
+        }
+
+        public Builder setShapeColor(int shapeColor) {
+            item.shapeColor = shapeColor;
+            return this;
+        }
+
+        public Builder setShowShapeAlways(boolean showShapeAlways) {
+            item.showShapeAlways = showShapeAlways;
+            return this;
+        }
+
+        public Builder setTitle(@Nullable String title) {
+            item.title = title == null ? "" : title;
+            return this;
+        }
+
+        public Builder setTitleSize(float titleSize) {
+            item.titleSize = titleSize;
+            return this;
+        }
+
+        public Builder setTitlePadding(int titlePadding) {
+            item.titlePadding = titlePadding;
+            return this;
+        }
+
+        public Builder setColorActive(int colorActive) {
+            item.colorActive = colorActive;
+            return this;
+        }
+
+        public Builder setColorInactive(int colorInactive) {
+            item.colorInactive = colorInactive;
+            return this;
+        }
+
+        public Builder setInternalPadding(int internalPadding) {
+            item.internalPadding = internalPadding;
+            return this;
+        }
+
+        public Builder setBadgeText(@Nullable String badgeText) {
+            item.badgeText = badgeText;
+            return this;
+        }
+
+        public Builder setBadgeTextSize(float badgeTextSize) {
+            item.badgeTextSize = badgeTextSize;
+            return this;
+        }
+
+        public Builder setBadgeTextColor(int badgeTextColor) {
+            item.badgeTextColor = badgeTextColor;
+            return this;
+        }
+
+        public Builder setBadgeBackgroundColor(int badgeBackgroundColor) {
+            item.badgeBackgroundColor = badgeBackgroundColor;
+            return this;
+        }
+
+        public Builder setActive(boolean active) {
+            item.active = active;
+            return this;
+        }
+
+        public Builder setDuration(int duration) {
+            item.duration = duration;
+            return this;
+        }
+
+        public Builder setFlatRender(boolean flatRender) {
+            item.flatRender = flatRender;
+            return this;
+        }
+
+        /**
+         * @return a new item, later changes to the builder do not affect it
+         */
+        public BottomNavToggleItem build() {
+            return new BottomNavToggleItem(res, item);
+        }
+    }
 }
@@ -0,0 +1,216 @@
+package com.core.bottomnav;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
+
+import java.util.Locale;
+
+/**
+ * Draws the icon and title of a {@link BottomNavToggleView} directly on its canvas,
+ * so the item does not need any child views
+ */
+class BottomNavToggleRenderer {
+
+    private final BottomNavToggleItem bottomNavToggleItem;
+    private float maxTitleWidth;
+
+    private final TextPaint titlePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+
+    //text metrics of the title paint, a copy so the drawing does not change them
+    private PrecomputedTextCompat.Params titleParams;
+    //built the first time the title is needed
+    private StaticLayout titleLayout;
+    private int titleWidth;
+
+    private final Rect iconBounds = new Rect();
+    private final Rect titleBounds = new Rect();
+
+    //alpha of the icon or title while a transition is running
+    private int contentAlpha = 255;
+
+    BottomNavToggleRenderer(Context context, BottomNavToggleItem bottomNavToggleItem, float maxTitleWidth) {
+        this.bottomNavToggleItem = bottomNavToggleItem;
+        this.maxTitleWidth = maxTitleWidth;
+
+        titlePaint.setTextSize(bottomNavToggleItem.getTitleSize());
+        titlePaint.setColor(bottomNavToggleItem.getColorActive());
+    }
+
+    /**
+     * Creates the cached {@link StaticLayout} of the title, limited to {@link #maxTitleWidth}
+     */
+    private void ensureTitleLayout() {
+        if (titleLayout != null) return;
+
+        String title = bottomNavToggleItem.getTitle() == null ? "" : bottomNavToggleItem.getTitle();
+        int titlePadding = bottomNavToggleItem.getTitlePadding();
+        float availableWidth = maxTitleWidth - 2 * titlePadding;
+        if (titleParams == null)
+            titleParams = new PrecomputedTextCompat.Params.Builder(new TextPaint(titlePaint)).build();
+
+        //measured once for the text metrics and the width, then taken from the cache
+        BottomNavTitleMetrics.Entry metrics = BottomNavTitleMetrics.getFitted(title, titleParams, (int) availableWidth);
+        int textWidth = metrics.width;
+        titleLayout = newTitleLayout(metrics.text, Math.max(textWidth, 0));
+        titleWidth = textWidth + 2 * titlePadding;
+    }
+
+    private StaticLayout newTitleLayout(CharSequence text, int width) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return StaticLayout.Builder.obtain(text, 0, text.length(), titlePaint, width)
+                    .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                    .setLineSpacing(0f, 1f)
+                    .setIncludePad(false)
+                    .build();
+        }
+        @SuppressWarnings("deprecation")
+        StaticLayout layout = new StaticLayout(text, titlePaint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, false);
+        return layout;
+    }
+
+    /**
+     * Limits the width of the title, its layout is rebuilt when next needed
+     *
+     * @param maxTitleWidth in pixels, padding included
+     */
+    void setMaxTitleWidth(float maxTitleWidth) {
+        if (this.maxTitleWidth == maxTitleWidth) return;
+        this.maxTitleWidth = maxTitleWidth;
+        titleLayout = null;
+    }
+
+    /**
+     * Sets the {@link Typeface} of the title, its layout is rebuilt when next needed
+     *
+     * @param typeface to be used
+     */
+    void setTypeface(@Nullable Typeface typeface) {
+        titlePaint.setTypeface(typeface);
+        titleParams = null;
+        titleLayout = null;
+    }
+
+    /**
+     * Sets the locale of the title, its layout is rebuilt when next needed
+     *
+     * @param locale of the title
+     */
+    void setTextLocale(Locale locale) {
+        titlePaint.setTextLocale(locale);
+        titleParams = null;
+        titleLayout = null;
+    }
+
+    /**
+     * @return the text metrics of the title with the given typeface and locale
+     */
+    PrecomputedTextCompat.Params newTitleParams(@Nullable Typeface typeface, Locale locale) {
+        TextPaint paint = new TextPaint(titlePaint);
+        paint.setTypeface(typeface);
+        paint.setTextLocale(locale);
+        return new PrecomputedTextCompat.Params.Builder(paint).build();
+    }
+
+    /**
+     * The title changed, its layout is rebuilt when next needed
+     */
+    void invalidateTitle() {
+        titleLayout = null;
+    }
+
+    /**
+     * Sets the alpha of the drawn icon or title, the badge is not affected
+     *
+     * @param alpha from 0 to 1
+     */
+    void setContentAlpha(float alpha) {
+        contentAlpha = Math.round(Math.max(0f, Math.min(1f, alpha)) * 255);
+    }
+
+    int getTitleWidth() {
+        ensureTitleLayout();
+        return titleWidth;
+    }
+
+    int getTitleHeight() {
+        ensureTitleLayout();
+        return titleLayout.getHeight();
+    }
+
+    int getContentWidth(boolean isActive) {
+        return isActive ? getTitleWidth() : (int) bottomNavToggleItem.getIconWidth();
+    }
+
+    int getContentHeight(boolean isActive) {
+        return isActive ? getTitleHeight() : (int) bottomNavToggleItem.getIconHeight();
+    }
+
+    /**
+     * Positions the icon and title inside the given content box
+     */
+    void layout(int left, int top, int right, int bottom) {
+        int centerX = (left + right) / 2;
+        int centerY = (top + bottom) / 2;
+
+        int iconWidth = (int) bottomNavToggleItem.getIconWidth();
+        int iconHeight = (int) bottomNavToggleItem.getIconHeight();
+        iconBounds.set(centerX - iconWidth / 2, centerY - iconHeight / 2,
+                centerX - iconWidth / 2 + iconWidth, centerY - iconHeight / 2 + iconHeight);
+
+        //the title is placed when it is shown
+        if (titleLayout == null) {
+            titleBounds.set(iconBounds);
+            return;
+        }
+        titleBounds.set(centerX - titleWidth / 2, centerY - getTitleHeight() / 2,
+                centerX - titleWidth / 2 + titleWidth, centerY - getTitleHeight() / 2 + getTitleHeight());
+    }
+
+    Rect getIconBounds() {
+        return iconBounds;
+    }
+
+    Rect getTitleBounds() {
+        return titleBounds;
+    }
+
+    /**
+     * Draws the current state
+     *
+     * @param canvas   to draw on
+     * @param isActive current state
+     */
+    void draw(Canvas canvas, boolean isActive) {
+        if (isActive) {
+            ensureTitleLayout();
+            titlePaint.setAlpha(Color.alpha(bottomNavToggleItem.getColorActive()) * contentAlpha / 255);
+            canvas.save();
+            canvas.translate(titleBounds.left + bottomNavToggleItem.getTitlePadding(), titleBounds.top);
+            titleLayout.draw(canvas);
+            canvas.restore();
+        } else {
+            Drawable icon = bottomNavToggleItem.getIcon();
+            if (icon != null && contentAlpha > 0) {
+                //the drawable alpha may be shared with other items, fade it through the canvas
+                int saveCount = contentAlpha < 255
+                        ? canvas.saveLayerAlpha(iconBounds.left, iconBounds.top, iconBounds.right, iconBounds.bottom, contentAlpha)
+                        : canvas.save();
+                icon.setBounds(iconBounds);
+                icon.draw(canvas);
+                canvas.restoreToCount(saveCount);
+            }
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.core.bottomnav;
 
-import android.animation.ValueAnimator;
 import android.content.Context;
+import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.graphics.Typeface;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.TransitionDrawable;
 import android.os.Build;
+import android.text.TextPaint;
+import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.TypedValue;
 import android.view.Gravity;
@@ -19,8 +25,11 @@ import android.widget.TextView;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.appcompat.content.res.AppCompatResources;
-import androidx.core.content.ContextCompat;
+import androidx.core.text.PrecomputedTextCompat;
 import androidx.core.view.ViewCompat;
+import androidx.core.widget.TextViewCompat;
+
+import java.util.Locale;
 
 /**
  * BottomNavToggleView
@@ -28,23 +37,54 @@ import androidx.core.view.ViewCompat;
 public class BottomNavToggleView extends RelativeLayout {
 
     private static final String TAG = "BNI_View";
-    private static final int DEFAULT_ANIM_DURATION = 300;
+    private static final int DEFAULT_ANIM_DURATION = BottomNavToggleItem.DEFAULT_ANIM_DURATION;
+    private static final int[][] TINT_STATES = {{android.R.attr.state_selected}, {}};
 
     private BottomNavToggleItem bottomNavToggleItem;
 
     private boolean isActive = false;
 
+    //icon colors by state, the active item is selected
+    private ColorStateList iconTint;
+
     private ImageView iconView;
+    //created the first time the item is activated
     private TextView titleView;
-    private TextView badgeView;
+    private Typeface titleTypeface;
+    //locale the title is shaped for
+    private Locale titleLocale = Locale.getDefault();
+
+    //reused for every badge update, created with the first badge
+    private BottomNavBadgeDrawable badgeDrawable;
+    private int badgeUpdateCount;
+    private int badgeInvalidateCount;
+    private int badgeResizeCount;
+    private int layoutRequestCount;
+
+    //draws the item without child views, when bt_flatRender is set
+    private BottomNavToggleRenderer renderer;
 
-    private int animationDuration;
+    private int animationDuration = DEFAULT_ANIM_DURATION;
     private boolean showShapeAlways;
+    //false when the navigation container draws the shape as its indicator
+    private boolean shapeVisible = true;
 
     private float maxTitleWidth;
+    //width the title may take in the bar, set by the navigation container, 0 when not limited
+    private int titleBudget;
     private float measuredTitleWidth;
     private float measuredIconWidth;
 
+    //set when the item is created from a BottomNavItemSpec
+    private BottomNavItemSpec itemSpec;
+    //shown for the specs without an icon, created once per view
+    private Drawable defaultIcon;
+    //position in the navigation bar, kept by the navigation container
+    private int navPosition = -1;
+
+    //cache key of the icon being loaded or shown from an icon source
+    private String iconKey;
+
     /**
      * Constructors
      */
@@ -69,6 +109,17 @@ public class BottomNavToggleView extends RelativeLayout {
         init(context, attrs);
     }
 
+    /**
+     * Creates the item from a {@link BottomNavToggleItem}, without reading any attribute
+     *
+     * @param context current context
+     * @param item    built with {@link BottomNavToggleItem.Builder}
+     */
+    public BottomNavToggleView(Context context, BottomNavToggleItem item) {
+        super(context);
+        setUp(context, new BottomNavToggleItem(context.getResources(), item));
+    }
+
     /////////////////////////////////////
     // PRIVATE METHODS
     /////////////////////////////////////
@@ -83,21 +134,27 @@ public class BottomNavToggleView extends RelativeLayout {
         //initialize default component
         String title = "Title";
         Drawable icon = null;
+        String iconSource = null;
         Drawable shape = null;
         int shapeColor = Integer.MIN_VALUE;
-        int colorActive = ViewUtils.getThemeAccentColor(context);
-        int colorInactive = ContextCompat.getColor(context, com.core.bottomnav.R.color.default_inactive_color);
-        float titleSize = context.getResources().getDimension(com.core.bottomnav.R.dimen.default_nav_item_text_size);
-        maxTitleWidth = context.getResources().getDimension(com.core.bottomnav.R.dimen.default_nav_item_title_max_width);
-        float iconWidth = context.getResources().getDimension(com.core.bottomnav.R.dimen.default_icon_size);
-        float iconHeight = context.getResources().getDimension(com.core.bottomnav.R.dimen.default_icon_size);
-        int internalPadding = (int) context.getResources().getDimension(com.core.bottomnav.R.dimen.default_nav_item_padding);
-        int titlePadding = (int) context.getResources().getDimension(com.core.bottomnav.R.dimen.default_nav_item_text_padding);
-
-        int badgeTextSize = (int) context.getResources().getDimension(com.core.bottomnav.R.dimen.default_nav_item_badge_text_size);
-        int badgeBackgroundColor = ContextCompat.getColor(context, com.core.bottomnav.R.color.default_badge_background_color);
-        int badgeTextColor = ContextCompat.getColor(context, com.core.bottomnav.R.color.default_badge_text_color);
+        //theme defaults, resolved once and shared by all the items
+        BottomNavResources resources = BottomNavResources.get(context);
+        int colorActive = resources.colorActive;
+        int colorInactive = resources.colorInactive;
+        float titleSize = resources.titleSize;
+        float iconWidth = resources.iconSize;
+        float iconHeight = resources.iconSize;
+        int internalPadding = resources.internalPadding;
+        int titlePadding = resources.titlePadding;
+
+        int badgeTextSize = resources.badgeTextSize;
+        int badgeBackgroundColor = resources.badgeBackgroundColor;
+        int badgeTextColor = resources.badgeTextColor;
         String badgeText = null;
+        boolean flatRender = false;
+        boolean showShapeAlways = false;
+        boolean isActive = false;
+        int animationDuration = DEFAULT_ANIM_DURATION;
 
         if (attrs != null) {
             TypedArray ta = context.obtainStyledAttributes(attrs, com.core.bottomnav.R.styleable.BottomNavToggleView, 0, 0);
@@ -108,6 +165,7 @@ public class BottomNavToggleView extends RelativeLayout {
                     icon = AppCompatResources.getDrawable(getContext(), ta.getResourceId(com.core.bottomnav.R.styleable.BottomNavToggleView_bt_icon, com.core.bottomnav.R.drawable.default_icon));
                 iconWidth = ta.getDimension(com.core.bottomnav.R.styleable.BottomNavToggleView_bt_iconWidth, iconWidth);
                 iconHeight = ta.getDimension(com.core.bottomnav.R.styleable.BottomNavToggleView_bt_iconHeight, iconHeight);
+                iconSource = ta.getString(com.core.bottomnav.R.styleable.BottomNavToggleView_bt_iconSource);
                 shape = ta.getDrawable(com.core.bottomnav.R.styleable.BottomNavToggleView_bt_shape);
                 shapeColor = ta.getColor(com.core.bottomnav.R.styleable.BottomNavToggleView_bt_shapeColor, shapeColor);
                 showShapeAlways = ta.getBoolean(com.core.bottomnav.R.styleable.BottomNavToggleView_bt_showShapeAlways, false);
@@ -123,36 +181,67 @@ public class BottomNavToggleView extends RelativeLayout {
                 badgeBackgroundColor = ta.getColor(com.core.bottomnav.R.styleable.BottomNavToggleView_bt_badgeBackgroundColor, badgeBackgroundColor);
                 badgeTextColor = ta.getColor(com.core.bottomnav.R.styleable.BottomNavToggleView_bt_badgeTextColor, badgeTextColor);
                 badgeText = ta.getString(com.core.bottomnav.R.styleable.BottomNavToggleView_bt_badgeText);
+                flatRender = ta.getBoolean(com.core.bottomnav.R.styleable.BottomNavToggleView_bt_flatRender, false);
             } finally {
                 ta.recycle();
             }
         }
 
+        //create a default bottomnav item
+        BottomNavToggleItem item = new BottomNavToggleItem();
+        item.setIcon(icon);
+        item.setIconSource(iconSource);
+        item.setShape(shape);
+        item.setTitle(title == null ? "" : title);
+        item.setTitleSize(titleSize);
+        item.setTitlePadding(titlePadding);
+        item.setShapeColor(shapeColor);
+        item.setShowShapeAlways(showShapeAlways);
+        item.setColorActive(colorActive);
+        item.setColorInactive(colorInactive);
+        item.setIconWidth(iconWidth);
+        item.setIconHeight(iconHeight);
+        item.setInternalPadding(internalPadding);
+        item.setBadgeText(badgeText);
+        item.setBadgeBackgroundColor(badgeBackgroundColor);
+        item.setBadgeTextColor(badgeTextColor);
+        item.setBadgeTextSize(badgeTextSize);
+        item.setActive(isActive);
+        item.setDuration(animationDuration);
+        item.setFlatRender(flatRender);
+
+        setUp(context, item);
+    }
+
+    /**
+     * Creates the item from its {@link BottomNavToggleItem}
+     *
+     * @param context current context
+     * @param item    owned by this view
+     */
+    private void setUp(Context context, BottomNavToggleItem item) {
+        BottomNavResources resources = BottomNavResources.get(context);
+        maxTitleWidth = resources.maxTitleWidth;
+
         //set the default icon
-        if (icon == null)
-            icon = ContextCompat.getDrawable(context, com.core.bottomnav.R.drawable.default_icon);
+        if (item.getIcon() == null)
+            item.setIcon(resources.newIcon(context));
 
-        //set the default shape
-        if (shape == null)
-            shape = ContextCompat.getDrawable(context, com.core.bottomnav.R.drawable.transition_background_drawable);
+        //set the default shape, only a tinted shape needs its own state
+        if (item.getShape() == null)
+            item.setShape(resources.newShape(context, item.getShapeColor() != Integer.MIN_VALUE));
 
-        //create a default bottomnav item
-        bottomNavToggleItem = new BottomNavToggleItem();
-        bottomNavToggleItem.setIcon(icon);
-        bottomNavToggleItem.setShape(shape);
-        bottomNavToggleItem.setTitle(title);
-        bottomNavToggleItem.setTitleSize(titleSize);
-        bottomNavToggleItem.setTitlePadding(titlePadding);
-        bottomNavToggleItem.setShapeColor(shapeColor);
-        bottomNavToggleItem.setColorActive(colorActive);
-        bottomNavToggleItem.setColorInactive(colorInactive);
-        bottomNavToggleItem.setIconWidth(iconWidth);
-        bottomNavToggleItem.setIconHeight(iconHeight);
-        bottomNavToggleItem.setInternalPadding(internalPadding);
-        bottomNavToggleItem.setBadgeText(badgeText);
-        bottomNavToggleItem.setBadgeBackgroundColor(badgeBackgroundColor);
-        bottomNavToggleItem.setBadgeTextColor(badgeTextColor);
-        bottomNavToggleItem.setBadgeTextSize(badgeTextSize);
+        bottomNavToggleItem = item;
+        isActive = item.isActive();
+        showShapeAlways = item.isShowShapeAlways();
+        animationDuration = item.getDuration();
+
+        //the colors follow the selected state, nothing is tinted again when toggling
+        iconTint = new ColorStateList(TINT_STATES, new int[]{item.getColorActive(), item.getColorInactive()});
+        //if not showing Shape Always and valid shape color present, use that as tint, once
+        if (!showShapeAlways && item.getShapeColor() != Integer.MIN_VALUE
+                && !(item.getShape() instanceof TransitionDrawable))
+            ViewUtils.updateDrawableColor(item.getShape().mutate(), item.getShapeColor());
 
         //set the gravity
         setGravity(Gravity.CENTER);
@@ -163,24 +252,39 @@ public class BottomNavToggleView extends RelativeLayout {
                 bottomNavToggleItem.getInternalPadding(),
                 bottomNavToggleItem.getInternalPadding(),
                 bottomNavToggleItem.getInternalPadding());
-        post(new Runnable() {
-            @Override
-            public void run() {
-                //make sure the padding is added
-                setPadding(
-                        bottomNavToggleItem.getInternalPadding(),
-                        bottomNavToggleItem.getInternalPadding(),
-                        bottomNavToggleItem.getInternalPadding(),
-                        bottomNavToggleItem.getInternalPadding());
-            }
-        });
 
-        createBottomNavItemView(context);
+        //the navigation container finds the items by id
+        if (getId() == NO_ID)
+            setId(ViewCompat.generateViewId());
+
+        if (item.isFlatRender()) {
+            createBottomNavItemRenderer(context);
+            updateBadge();
+        } else
+            createBottomNavItemView(context);
         setInitialState(isActive);
+
+        if (item.getIconSource() != null)
+            setIconSource(item.getIconSource());
     }
 
     /**
-     * Create the components of the bottomnav item view {@link #iconView} and {@link #titleView}
+     * Create the {@link #renderer} that draws the icon, title and badge without child views
+     *
+     * @param context current context
+     */
+    private void createBottomNavItemRenderer(Context context) {
+        renderer = new BottomNavToggleRenderer(context, bottomNavToggleItem, maxTitleWidth);
+        measuredIconWidth = bottomNavToggleItem.getIconWidth();
+
+        attachRendererIcon(bottomNavToggleItem.getIcon());
+
+        setWillNotDraw(false);
+    }
+
+    /**
+     * Create the {@link #iconView} of the bottomnav item view, the {@link #titleView} is only
+     * created when the item is activated
      *
      * @param context current context
      */
@@ -193,9 +297,22 @@ public class BottomNavToggleView extends RelativeLayout {
         lpIcon.addRule(RelativeLayout.CENTER_VERTICAL, RelativeLayout.TRUE);
         iconView.setLayoutParams(lpIcon);
         iconView.setImageDrawable(bottomNavToggleItem.getIcon());
+        iconView.setImageTintList(iconTint);
+        measuredIconWidth = bottomNavToggleItem.getIconWidth();
+
+        addView(iconView);
+
+        updateBadge();
+    }
+
+    /**
+     * Creates the {@link #titleView} if needed and caches its measured width
+     */
+    private void ensureTitleView() {
+        if (titleView != null) return;
 
         //create the nav title
-        titleView = new TextView(context);
+        titleView = new TextView(getContext());
         LayoutParams lpTitle = new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
         lpTitle.addRule(RelativeLayout.CENTER_VERTICAL, RelativeLayout.TRUE);
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1)
@@ -205,70 +322,154 @@ public class BottomNavToggleView extends RelativeLayout {
         titleView.setLayoutParams(lpTitle);
         titleView.setSingleLine(true);
         titleView.setTextColor(bottomNavToggleItem.getColorActive());
-        titleView.setText(bottomNavToggleItem.getTitle());
         titleView.setTextSize(TypedValue.COMPLEX_UNIT_PX, bottomNavToggleItem.getTitleSize());
-        //get the current measured title width
-        titleView.setVisibility(VISIBLE);
+        if (titleTypeface != null)
+            titleView.setTypeface(titleTypeface);
+        titleView.setTextLocale(titleLocale);
         //update the margin of the text view
         titleView.setPadding(bottomNavToggleItem.getTitlePadding(), 0, bottomNavToggleItem.getTitlePadding(), 0);
-        //measure the content width
-        titleView.measure(0, 0);       //must call measure!
-        measuredTitleWidth = titleView.getMeasuredWidth();  //get width
-        measuredIconWidth = iconView.getMeasuredWidth(); //get icon width
-        //limit measured width, based on the max width
-        if (measuredTitleWidth > maxTitleWidth)
-            measuredTitleWidth = maxTitleWidth;
+        measureTitle();
 
         //change the visibility
         titleView.setVisibility(GONE);
 
-        addView(iconView);
         addView(titleView);
+    }
 
-        updateBadge(context);
+    /**
+     * Shows the title in the {@link #titleView}, ellipsized to {@link #getTitleLimit()}, and
+     * caches its width. The title is measured once for the text metrics of the view and the
+     * limit, then taken from the {@link BottomNavTitleMetrics}
+     */
+    private void measureTitle() {
+        float titleLimit = getTitleLimit();
+        int titlePadding = titleView.getPaddingLeft() + titleView.getPaddingRight();
+        BottomNavTitleMetrics.Entry title = BottomNavTitleMetrics.getFitted(bottomNavToggleItem.getTitle(),
+                TextViewCompat.getTextMetricsParams(titleView), (int) titleLimit - titlePadding);
+        TextViewCompat.setPrecomputedText(titleView, title.text);
+        measuredTitleWidth = title.width + titlePadding;
+        //limit measured width, based on the max width
+        if (measuredTitleWidth > titleLimit)
+            measuredTitleWidth = titleLimit;
+    }
 
-        //set the initial state
-        setInitialState(isActive);
+    /**
+     * @return the width the title may take, padding included
+     */
+    private float getTitleLimit() {
+        return titleBudget > 0 ? Math.min(maxTitleWidth, titleBudget) : maxTitleWidth;
     }
 
     /**
-     * Adds or removes the badge
+     * Updates the badge from the {@link BottomNavToggleItem}. A single {@link #badgeDrawable} is
+     * reused, so an update only redraws the view and never requests a layout
      */
-    private void updateBadge(Context context) {
+    private void updateBadge() {
+        badgeUpdateCount++;
+
+        String badgeText = bottomNavToggleItem.getBadgeText();
+        if (badgeDrawable == null) {
+            if (badgeText == null) return;
+            badgeDrawable = new BottomNavBadgeDrawable(getContext(),
+                    bottomNavToggleItem.getBadgeTextColor(),
+                    bottomNavToggleItem.getBadgeTextSize(),
+                    bottomNavToggleItem.getBadgeBackgroundColor());
+            badgeDrawable.setCallback(this);
+        }
+
+        //nothing to redraw when the text is the same
+        if (badgeText == badgeDrawable.getText()
+                || (badgeText != BottomNavBadgeLabels.DOT && badgeDrawable.getText() != BottomNavBadgeLabels.DOT
+                && TextUtils.equals(badgeText, badgeDrawable.getText())))
+            return;
 
-        //remove the previous badge view
-        if (badgeView != null)
-            removeView(badgeView);
+        if (badgeDrawable.setText(badgeText)) {
+            //the width changed, the badge is anchored again
+            badgeResizeCount++;
+            updateBadgeAnchor();
+        }
 
-        if (bottomNavToggleItem.getBadgeText() == null)
+        badgeInvalidateCount++;
+        invalidate();
+    }
+
+    /**
+     * Aligns the badge to the top end of the icon, or of the title when active
+     */
+    private void updateBadgeAnchor() {
+        if (badgeDrawable == null) return;
+
+        if (renderer != null) {
+            Rect anchor = isActive ? renderer.getTitleBounds() : renderer.getIconBounds();
+            badgeDrawable.setAnchor(anchor.right, anchor.top);
+        } else {
+            View anchor = isActive && titleView != null ? titleView : iconView;
+            badgeDrawable.setAnchor(anchor.getRight(), anchor.getTop());
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (renderer == null) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
             return;
+        }
 
-        //create badge
-        badgeView = new TextView(context);
-        LayoutParams lpBadge = new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-        lpBadge.addRule(RelativeLayout.ALIGN_TOP, iconView.getId());
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-            lpBadge.addRule(RelativeLayout.ALIGN_END, iconView.getId());
-        } else
-            lpBadge.addRule(RelativeLayout.ALIGN_RIGHT, iconView.getId());
-        badgeView.setLayoutParams(lpBadge);
-        badgeView.setSingleLine(true);
-        badgeView.setTextColor(bottomNavToggleItem.getBadgeTextColor());
-        badgeView.setText(bottomNavToggleItem.getBadgeText());
-        badgeView.setTextSize(TypedValue.COMPLEX_UNIT_PX, bottomNavToggleItem.getBadgeTextSize());
-        badgeView.setGravity(Gravity.CENTER);
-        Drawable drawable = ContextCompat.getDrawable(context, com.core.bottomnav.R.drawable.badge_background_white);
-        ViewUtils.updateDrawableColor(drawable, bottomNavToggleItem.getBadgeBackgroundColor());
-        badgeView.setBackground(drawable);
-        int badgePadding = (int) context.getResources().getDimension(com.core.bottomnav.R.dimen.default_nav_item_badge_padding);
-        //update the margin of the text view
-        badgeView.setPadding(badgePadding, 0, badgePadding, 0);
-        //measure the content width
-        badgeView.measure(0, 0);
-        if (badgeView.getMeasuredWidth() < badgeView.getMeasuredHeight())
-            badgeView.setWidth(badgeView.getMeasuredHeight());
+        //single pass measure of the drawn content
+        int width = getPaddingLeft() + getPaddingRight() + renderer.getContentWidth(isActive);
+        int height = getPaddingTop() + getPaddingBottom() + renderer.getContentHeight(isActive);
+        setMeasuredDimension(
+                resolveSize(Math.max(width, getSuggestedMinimumWidth()), widthMeasureSpec),
+                resolveSize(Math.max(height, getSuggestedMinimumHeight()), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        if (renderer == null)
+            super.onLayout(changed, l, t, r, b);
+        else
+            renderer.layout(getPaddingLeft(), getPaddingTop(),
+                    (r - l) - getPaddingRight(), (b - t) - getPaddingBottom());
+
+        updateBadgeAnchor();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (renderer != null)
+            renderer.draw(canvas, isActive);
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        //the badge is drawn above the content
+        if (badgeDrawable != null)
+            badgeDrawable.draw(canvas);
+    }
+
+    @Override
+    protected void drawableStateChanged() {
+        super.drawableStateChanged();
+        //the image view updates its own icon
+        if (renderer == null) return;
+        Drawable icon = bottomNavToggleItem.getIcon();
+        if (icon != null && icon.isStateful() && icon.setState(getDrawableState()))
+            invalidate();
+    }
+
+    @Override
+    protected boolean verifyDrawable(Drawable who) {
+        return super.verifyDrawable(who)
+                || (badgeDrawable != null && who == badgeDrawable)
+                || (renderer != null && who == bottomNavToggleItem.getIcon());
+    }
 
-        addView(badgeView);
+    @Override
+    public void requestLayout() {
+        layoutRequestCount++;
+        super.requestLayout();
     }
 
     /////////////////////////////////
@@ -282,27 +483,31 @@ public class BottomNavToggleView extends RelativeLayout {
      */
     public void setInitialState(boolean isActive) {
         //set the background
-        setBackground(bottomNavToggleItem.getShape());
+        setBackground(shapeVisible ? bottomNavToggleItem.getShape() : null);
+        //a background with padding replaces the internal padding, restore it right away
+        int internalPadding = bottomNavToggleItem.getInternalPadding();
+        setPadding(internalPadding, internalPadding, internalPadding, internalPadding);
 
         if (isActive) {
-            iconView.setAlpha(0f);
-            iconView.setVisibility(GONE);
-//            ViewUtils.updateDrawableColor(iconView.getDrawable(), bottomNavToggleItem.getColorActive());
+            if (renderer == null) {
+                iconView.setAlpha(0f);
+                iconView.setVisibility(GONE);
+                ensureTitleView();
+                titleView.setVisibility(VISIBLE);
+            }
             this.isActive = true;
-            titleView.setVisibility(VISIBLE);
             if (getBackground() instanceof TransitionDrawable) {
                 TransitionDrawable trans = (TransitionDrawable) getBackground();
                 trans.startTransition(0);
-            } else {
-                if (!showShapeAlways && bottomNavToggleItem.getShapeColor() != Integer.MIN_VALUE)
-                    ViewUtils.updateDrawableColor(bottomNavToggleItem.getShape(), bottomNavToggleItem.getShapeColor());
             }
         } else {
-            iconView.setAlpha(1f);
-            iconView.setVisibility(VISIBLE);
-//            ViewUtils.updateDrawableColor(iconView.getDrawable(), bottomNavToggleItem.getColorInactive());
+            if (renderer == null) {
+                iconView.setAlpha(1f);
+                iconView.setVisibility(VISIBLE);
+                if (titleView != null)
+                    titleView.setVisibility(GONE);
+            }
             this.isActive = false;
-            titleView.setVisibility(GONE);
             if (!showShapeAlways) {
                 if (!(getBackground() instanceof TransitionDrawable)) {
                     setBackground(null);
@@ -312,6 +517,13 @@ public class BottomNavToggleView extends RelativeLayout {
                 }
             }
         }
+
+        if (renderer != null) {
+            requestLayout();
+            invalidate();
+        }
+        setSelected(this.isActive);
+        updateAtlasRegion();
     }
 
     /**
@@ -328,47 +540,29 @@ public class BottomNavToggleView extends RelativeLayout {
      * Set Active state
      */
     public void activate() {
-        iconView.setAlpha(0f);
-        iconView.setVisibility(GONE);
-
         isActive = true;
-        titleView.setVisibility(VISIBLE);
-        titleView.setWidth((int) measuredTitleWidth);
-//        setLayerType(View.LAYER_TYPE_HARDWARE, null);
-//        ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
-//        animator.setDuration(animationDuration);
-//        animator.addUpdateListener(animation -> {
-//            float value = (float) animation.getAnimatedValue();
-//            titleView.setWidth((int) (measuredTitleWidth * value));
-//            //end of animation
-//            if (value >= 1.0f) {
-//                setLayerType(View.LAYER_TYPE_NONE, null);
-//            }
-//        });
-//        animator.start();
+        setSelected(true);
+        updateAtlasRegion();
+        if (renderer != null) {
+            //the content width changes from the icon to the title
+            requestLayout();
+            invalidate();
+        } else {
+            iconView.setAlpha(0f);
+            iconView.setVisibility(GONE);
+            ensureTitleView();
+            titleView.setVisibility(VISIBLE);
+            titleView.setWidth((int) measuredTitleWidth);
+        }
 
-        if (getBackground() instanceof TransitionDrawable) {
+        if (!shapeVisible) {
+            //drawn by the navigation container
+        } else if (getBackground() instanceof TransitionDrawable) {
             TransitionDrawable trans = (TransitionDrawable) getBackground();
             trans.startTransition(animationDuration);
         } else {
-            //if not showing Shape Always and valid shape color present, use that as tint
-            if (!showShapeAlways && bottomNavToggleItem.getShapeColor() != Integer.MIN_VALUE)
-                ViewUtils.updateDrawableColor(bottomNavToggleItem.getShape(), bottomNavToggleItem.getShapeColor());
-
-            Drawable background = bottomNavToggleItem.getShape();
-            background.setAlpha(0);
-            setBackground(background);
-            background.setAlpha(255);
-
-//            ValueAnimator backgroundAnimator = ValueAnimator.ofInt(0, 255);
-//            backgroundAnimator.setDuration(animationDuration / 3);
-//            backgroundAnimator.addUpdateListener(animation -> {
-//                int value = (int) animation.getAnimatedValue();
-//                background.setAlpha(value);
-//                //end of animation
-////                if (value >= 1.0f)
-//            });
-//            backgroundAnimator.start();
+            //the shape is already tinted
+            setBackground(bottomNavToggleItem.getShape());
         }
     }
 
@@ -376,38 +570,19 @@ public class BottomNavToggleView extends RelativeLayout {
      * Set Inactive State
      */
     public void deactivate() {
-        iconView.setVisibility(VISIBLE);
-
         isActive = false;
-        iconView.setAlpha(1f);
-//        ValueAnimator iconAnimator = ValueAnimator.ofFloat(0f, 1f);
-//        iconAnimator.setDuration(animationDuration / 2);
-//        iconAnimator.addUpdateListener(animation -> {
-//            float value = (float) animation.getAnimatedValue();
-//            iconView.setAlpha(value);
-//            //end of animation
-////                if (value >= 1.0f)
-//
-//        });
-//        iconAnimator.start();
-
-//        ViewUtils.updateDrawableColor(iconView.getDrawable(), bottomNavToggleItem.getColorInactive());
+        setSelected(false);
+        updateAtlasRegion();
+        if (renderer != null) {
+            requestLayout();
+            invalidate();
+        } else {
+            iconView.setVisibility(VISIBLE);
+            iconView.setAlpha(1f);
+        }
 
-        isActive = false;
-        titleView.setWidth(0);
-//        ValueAnimator animator = ValueAnimator.ofFloat(1f, 0f);
-//        setLayerType(View.LAYER_TYPE_HARDWARE, null);
-//        animator.setDuration(animationDuration);
-//        animator.addUpdateListener(animation -> {
-//            float value = (float) animation.getAnimatedValue();
-//            titleView.setWidth((int) (measuredTitleWidth * value));
-//            //end of animation
-//            if (value <= 0.0f) {
-//                titleView.setVisibility(GONE);
-//                setLayerType(View.LAYER_TYPE_NONE, null);
-//            }
-//        });
-//        animator.start();
+        if (titleView != null)
+            titleView.setWidth(0);
 
         if (getBackground() instanceof TransitionDrawable) {
             TransitionDrawable trans = (TransitionDrawable) getBackground();
@@ -417,6 +592,29 @@ public class BottomNavToggleView extends RelativeLayout {
         }
     }
 
+    /**
+     * Applies a frame of the activation transition, fading in the content of the current state
+     *
+     * @param fraction progress of the transition, from 0 to 1
+     */
+    void setTransitionFraction(float fraction) {
+        if (renderer != null) {
+            renderer.setContentAlpha(fraction);
+            invalidate();
+        } else if (isActive && titleView != null) {
+            titleView.setAlpha(fraction);
+        } else {
+            iconView.setAlpha(fraction);
+        }
+    }
+
+    /**
+     * @return the duration of the activation transition in milliseconds, set with bt_duration
+     */
+    int getAnimationDuration() {
+        return animationDuration;
+    }
+
     /**
      * Get the current state of the view
      *
@@ -432,34 +630,327 @@ public class BottomNavToggleView extends RelativeLayout {
      * @param typeface to be used
      */
     public void setTitleTypeface(Typeface typeface) {
-        titleView.setTypeface(typeface);
+        //a rebound item gets the same typeface again
+        if (typeface == titleTypeface) return;
+        titleTypeface = typeface;
+        if (renderer != null) {
+            renderer.setTypeface(typeface);
+            requestLayout();
+            invalidate();
+            return;
+        }
+        //applied when the title is created
+        if (titleView != null) {
+            titleView.setTypeface(typeface);
+            updateTitleWidth();
+        }
+    }
+
+    /**
+     * Sets the locale of the title, its shaping depends on it
+     *
+     * @param locale of the title
+     */
+    void setTitleLocale(Locale locale) {
+        if (locale.equals(titleLocale)) return;
+        titleLocale = locale;
+        if (renderer != null) {
+            renderer.setTextLocale(locale);
+            requestLayout();
+            invalidate();
+        } else if (titleView != null) {
+            titleView.setTextLocale(locale);
+            updateTitleWidth();
+        }
+    }
+
+    /**
+     * Measures the title again, after a change of its text metrics
+     */
+    private void updateTitleWidth() {
+        measureTitle();
+        if (isActive) {
+            titleView.setWidth((int) measuredTitleWidth);
+            requestLayout();
+        }
+    }
+
+    /**
+     * @return the text metrics of the title with the given typeface and locale, so the title
+     * can be measured in the background before they are set. Null while the title is not created
+     */
+    @Nullable
+    PrecomputedTextCompat.Params newTitleParams(@Nullable Typeface typeface, Locale locale) {
+        if (renderer != null)
+            return renderer.newTitleParams(typeface, locale);
+        if (titleView == null)
+            return null;
+
+        PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(titleView);
+        TextPaint paint = new TextPaint(params.getTextPaint());
+        paint.setTypeface(typeface);
+        paint.setTextLocale(locale);
+        PrecomputedTextCompat.Params.Builder builder = new PrecomputedTextCompat.Params.Builder(paint)
+                .setTextDirection(params.getTextDirection());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M)
+            builder.setBreakStrategy(params.getBreakStrategy())
+                    .setHyphenationFrequency(params.getHyphenationFrequency());
+        return builder.build();
     }
 
     /**
-     * Updates the measurements and fits the view
+     * Updates the measurements and fits the view: the title is ellipsized so the active item
+     * is not wider than the given width
      *
      * @param maxWidth in pixels
      */
     public void updateMeasurements(int maxWidth) {
         int marginLeft = 0, marginRight = 0;
-        ViewGroup.LayoutParams titleViewLayoutParams = titleView.getLayoutParams();
+        ViewGroup.LayoutParams titleViewLayoutParams = titleView != null ? titleView.getLayoutParams() : null;
         if (titleViewLayoutParams instanceof LayoutParams) {
-            marginLeft = ((LayoutParams) titleViewLayoutParams).rightMargin;
-            marginRight = ((LayoutParams) titleViewLayoutParams).leftMargin;
+            marginLeft = ((LayoutParams) titleViewLayoutParams).leftMargin;
+            marginRight = ((LayoutParams) titleViewLayoutParams).rightMargin;
         }
 
-        int newTitleWidth = maxWidth
-                - (getPaddingRight() + getPaddingLeft())
-                - (marginLeft + marginRight)
-                - ((int) bottomNavToggleItem.getIconWidth())
-                + titleView.getPaddingRight() + titleView.getPaddingLeft();
+        //the active item shows the title instead of the icon
+        setTitleBudget(maxWidth
+                - (getPaddingLeft() + getPaddingRight())
+                - (marginLeft + marginRight));
+    }
 
-        //if the new calculate title width is less than current one, update the titleView specs
-        if (newTitleWidth > 0 && newTitleWidth < measuredTitleWidth) {
-            measuredTitleWidth = titleView.getMeasuredWidth();
+    /**
+     * Limits the width of the title, its padding included. The title is only fitted again
+     * when the budget changes
+     *
+     * @param budget in pixels
+     */
+    private void setTitleBudget(int budget) {
+        budget = Math.max(budget, 1);
+        if (budget == titleBudget) return;
+        titleBudget = budget;
+
+        if (renderer != null) {
+            renderer.setMaxTitleWidth(getTitleLimit());
+            if (isActive) {
+                requestLayout();
+                invalidate();
+            }
+        } else if (titleView != null) {
+            updateTitleWidth();
         }
     }
 
+    /**
+     * @return the width of the item while inactive, showing only its icon
+     */
+    int getInactiveWidth() {
+        return (int) bottomNavToggleItem.getIconWidth() + getPaddingLeft() + getPaddingRight();
+    }
+
+    /**
+     * Shows the content of the spec, only the changed parts are updated
+     *
+     * @param spec of the item
+     */
+    void bind(BottomNavItemSpec spec) {
+        itemSpec = spec;
+        setTitle(spec.getTitle());
+        Drawable icon = spec.getIcon();
+        if (icon == null) {
+            if (defaultIcon == null)
+                defaultIcon = BottomNavResources.get(getContext()).newIcon(getContext());
+            icon = defaultIcon;
+        }
+        setIcon(icon);
+    }
+
+    BottomNavToggleItem getBottomNavToggleItem() {
+        return bottomNavToggleItem;
+    }
+
+    /**
+     * @return the icon of the item, not its region of an icon atlas
+     */
+    @Nullable
+    Drawable getSourceIcon() {
+        Drawable icon = bottomNavToggleItem.getIcon();
+        return icon instanceof BottomNavIconAtlas.Region ? ((BottomNavIconAtlas.Region) icon).getSource() : icon;
+    }
+
+    /**
+     * Draws the icon from an icon atlas, or from the icon itself again
+     *
+     * @param region of the atlas for this item, null to stop using the atlas
+     */
+    void setAtlasIcon(@Nullable BottomNavIconAtlas.Region region) {
+        if (region == null) {
+            setIcon(getSourceIcon());
+            return;
+        }
+        setIcon(region);
+        updateAtlasRegion();
+    }
+
+    /**
+     * Switches the region of the icon atlas to the active or inactive icon of the item
+     */
+    private void updateAtlasRegion() {
+        Drawable icon = bottomNavToggleItem.getIcon();
+        if (icon instanceof BottomNavIconAtlas.Region)
+            ((BottomNavIconAtlas.Region) icon).setActive(isActive);
+    }
+
+    /**
+     * Prepares an icon drawn by the {@link #renderer}: tinted once by state, the state is then
+     * updated in {@link #drawableStateChanged()}
+     */
+    private void attachRendererIcon(@Nullable Drawable icon) {
+        if (icon == null) return;
+        icon.setCallback(this);
+        icon.mutate();
+        icon.setTintList(iconTint);
+        icon.setState(getDrawableState());
+    }
+
+    /**
+     * @param visible false when the navigation container draws the shape of the active item
+     */
+    void setShapeVisible(boolean visible) {
+        if (shapeVisible == visible) return;
+        shapeVisible = visible;
+        setInitialState(isActive);
+    }
+
+    /**
+     * @return a copy of the visible shape of the active item, in its shape color
+     */
+    @Nullable
+    Drawable newIndicatorShape() {
+        Drawable shape = bottomNavToggleItem.getShape();
+        //the transition shape cross-fades from a transparent layer
+        if (shape instanceof TransitionDrawable && ((TransitionDrawable) shape).getNumberOfLayers() > 1)
+            shape = ((TransitionDrawable) shape).getDrawable(1);
+        if (shape == null || shape.getConstantState() == null) return null;
+
+        shape = shape.getConstantState().newDrawable(getResources()).mutate();
+        if (bottomNavToggleItem.getShapeColor() != Integer.MIN_VALUE)
+            ViewUtils.updateDrawableColor(shape, bottomNavToggleItem.getShapeColor());
+        return shape;
+    }
+
+    void setItemSpec(BottomNavItemSpec itemSpec) {
+        this.itemSpec = itemSpec;
+    }
+
+    @Nullable
+    BottomNavItemSpec getItemSpec() {
+        return itemSpec;
+    }
+
+    void setNavPosition(int navPosition) {
+        this.navPosition = navPosition;
+    }
+
+    int getNavPosition() {
+        return navPosition;
+    }
+
+    /**
+     * Sets the title, a layout is only requested while the title is shown
+     *
+     * @param title to be shown when active
+     */
+    void setTitle(@Nullable String title) {
+        if (title == null)
+            title = "";
+        if (title.equals(bottomNavToggleItem.getTitle())) return;
+        bottomNavToggleItem.setTitle(title);
+
+        if (renderer != null) {
+            renderer.invalidateTitle();
+        } else if (titleView != null) {
+            measureTitle();
+            if (isActive)
+                titleView.setWidth((int) measuredTitleWidth);
+        }
+        if (isActive) {
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    /**
+     * Sets the icon, drawn at the same size so no layout is requested
+     *
+     * @param icon to be shown when inactive
+     */
+    void setIcon(@Nullable Drawable icon) {
+        Drawable previousIcon = bottomNavToggleItem.getIcon();
+        if (icon == previousIcon) return;
+        bottomNavToggleItem.setIcon(icon);
+
+        if (renderer != null) {
+            if (previousIcon != null)
+                previousIcon.setCallback(null);
+            attachRendererIcon(icon);
+            invalidate();
+        } else {
+            iconView.setImageDrawable(icon);
+        }
+    }
+
+    /**
+     * Loads the icon from an Uri in the background: file, content or android.resource.
+     * The default icon is shown until it is loaded
+     *
+     * @param source Uri of the icon, null to stop loading it
+     */
+    public void setIconSource(@Nullable String source) {
+        setIconSource(source, null);
+    }
+
+    /**
+     * Loads the icon in the background, downsampled to the icon size and cached with the other
+     * items. The default icon is shown until it is loaded
+     *
+     * @param source of the icon, passed to the loader, null to stop loading it
+     * @param loader opening the source, null to open it as an Uri
+     */
+    public void setIconSource(@Nullable String source, @Nullable BottomNavIconLoader loader) {
+        if (source == null) {
+            iconKey = null;
+            return;
+        }
+        int width = (int) Math.ceil(bottomNavToggleItem.getIconWidth());
+        int height = (int) Math.ceil(bottomNavToggleItem.getIconHeight());
+        if (width <= 0 || height <= 0) return;
+
+        String key = BottomNavIconCache.key(source, width, height);
+        if (key.equals(iconKey)) return;
+        iconKey = key;
+
+        BottomNavIconCache cache = BottomNavIconCache.get();
+        Bitmap bitmap = cache.getBitmap(key);
+        if (bitmap != null) {
+            setIcon(new BitmapDrawable(getResources(), bitmap));
+            return;
+        }
+
+        //placeholder until the icon is loaded
+        setIcon(BottomNavResources.get(getContext()).newIcon(getContext()));
+        cache.load(source, width, height,
+                loader != null ? loader : BottomNavIconCache.uriLoader(getContext()), this);
+    }
+
+    /**
+     * Called by the {@link BottomNavIconCache} on the main thread
+     */
+    void onIconLoaded(String key, Bitmap bitmap) {
+        //another source was set in the meantime
+        if (!key.equals(iconKey)) return;
+        setIcon(new BitmapDrawable(getResources(), bitmap));
+    }
+
     /**
      * Set value to the Badge's
      *
@@ -467,7 +958,36 @@ public class BottomNavToggleView extends RelativeLayout {
      */
     public void setBadgeText(String value) {
         bottomNavToggleItem.setBadgeText(value);
-        updateBadge(getContext());
+        updateBadge();
+    }
+
+    /**
+     * @return the number of badge updates received by {@link #setBadgeText(String)}
+     */
+    public int getBadgeUpdateCount() {
+        return badgeUpdateCount;
+    }
+
+    /**
+     * @return the number of badge updates that redrew the view
+     */
+    public int getBadgeInvalidateCount() {
+        return badgeInvalidateCount;
+    }
+
+    /**
+     * @return the number of badge updates that changed the badge width
+     */
+    public int getBadgeResizeCount() {
+        return badgeResizeCount;
+    }
+
+    /**
+     * @return the number of times a layout of this view was requested, badge updates never
+     * increase it
+     */
+    public int getLayoutRequestCount() {
+        return layoutRequestCount;
     }
 
 }
@@ -0,0 +1,268 @@
+package com.core.bottomnav;
+
+import android.graphics.Rect;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+import java.util.List;
+
+/**
+ * Animates the switch between two {@link BottomNavToggleView} using only translation, clipping
+ * and alpha, driven by a single {@link Choreographer} frame callback.
+ * <p>
+ * The items are toggled to their final state once, which costs a single layout pass. After that
+ * layout every item is translated back to where it was drawn before, and each frame only moves
+ * the items towards their new position, so no frame triggers a relayout.
+ */
+class BottomNavTransitionAnimator implements Choreographer.FrameCallback {
+
+    interface Listener {
+        /**
+         * Called after each frame is applied
+         *
+         * @param incoming item being activated
+         * @param fraction progress of the transition, from 0 to 1
+         */
+        void onTransitionFrame(BottomNavToggleView incoming, float fraction);
+
+        /**
+         * Called every time a transition ends, whether it completed or was ended
+         */
+        void onTransitionEnd();
+    }
+
+    private static final int MAX_ITEMS = 16;
+
+    private final Interpolator interpolator = new AccelerateDecelerateInterpolator();
+    private final Rect clipBounds = new Rect();
+
+    //positions and widths of the items, captured before the toggle
+    private final float[] fromX = new float[MAX_ITEMS];
+    private final int[] fromWidth = new int[MAX_ITEMS];
+    private final float[] deltaX = new float[MAX_ITEMS];
+    private final int[] previousLayerType = new int[MAX_ITEMS];
+
+    private List<BottomNavToggleView> items;
+    private BottomNavToggleView outgoing;
+    private BottomNavToggleView incoming;
+    private int incomingFromWidth;
+
+    private long duration;
+    private long startTimeNanos = -1;
+    private float fraction;
+    private boolean running;
+    //driven by setFraction instead of the frame clock
+    private boolean manual;
+    private boolean layersPromoted;
+
+    private Listener listener;
+
+    /**
+     * Records where the items are currently drawn. Must be called before toggling the items
+     *
+     * @param items of the navigation bar
+     */
+    void capture(List<BottomNavToggleView> items) {
+        //finish the running transition so the captured positions are the final ones
+        if (running)
+            end();
+
+        int count = Math.min(items.size(), MAX_ITEMS);
+        for (int i = 0; i < count; i++) {
+            View view = items.get(i);
+            fromX[i] = view.getX();
+            fromWidth[i] = view.getWidth();
+        }
+    }
+
+    /**
+     * Starts the transition between the two items. The items must already be toggled
+     *
+     * @param items    of the navigation bar
+     * @param outgoing item being deactivated
+     * @param incoming item being activated
+     * @param duration of the transition in milliseconds
+     */
+    void start(List<BottomNavToggleView> items, BottomNavToggleView outgoing, BottomNavToggleView incoming, long duration) {
+        int count = prepare(items, outgoing, incoming);
+        this.duration = Math.max(duration, 0);
+
+        if (this.duration == 0 || count == 0) {
+            applyFrame(1f);
+            finish();
+            return;
+        }
+
+        running = true;
+        startTimeNanos = -1;
+        promoteLayers();
+        applyFrame(0f);
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Starts a transition between the two items whose progress is set with
+     * {@link #setFraction(float)} instead of the frame clock, until {@link #end()} is called.
+     * The items must already be toggled
+     *
+     * @param items    of the navigation bar
+     * @param outgoing item being deactivated
+     * @param incoming item being activated
+     */
+    void startManual(List<BottomNavToggleView> items, BottomNavToggleView outgoing, BottomNavToggleView incoming) {
+        prepare(items, outgoing, incoming);
+        running = true;
+        manual = true;
+        promoteLayers();
+        applyFrame(0f);
+    }
+
+    /**
+     * Applies the progress of a transition started with {@link #startManual(List, BottomNavToggleView, BottomNavToggleView)}
+     *
+     * @param fraction progress of the transition, from 0 to 1
+     */
+    void setFraction(float fraction) {
+        if (!running || !manual) return;
+        applyFrame(Math.max(0f, Math.min(1f, fraction)));
+    }
+
+    /**
+     * @return the number of items that can be animated
+     */
+    private int prepare(List<BottomNavToggleView> items, BottomNavToggleView outgoing, BottomNavToggleView incoming) {
+        this.items = items;
+        this.outgoing = outgoing;
+        this.incoming = incoming;
+
+        int incomingPosition = items.indexOf(incoming);
+        incomingFromWidth = incomingPosition >= 0 && incomingPosition < MAX_ITEMS ? fromWidth[incomingPosition] : 0;
+
+        int count = Math.min(items.size(), MAX_ITEMS);
+        for (int i = 0; i < count; i++)
+            deltaX[i] = 0;
+        return count;
+    }
+
+    /**
+     * Must be called after the host laid out its children. Translates every item back to the
+     * position captured in {@link #capture(List)}, from where the frames move it to its new place
+     */
+    void onHostLayout() {
+        if (!running) return;
+
+        int count = Math.min(items.size(), MAX_ITEMS);
+        for (int i = 0; i < count; i++)
+            deltaX[i] = fromX[i] - items.get(i).getLeft();
+
+        applyFrame(fraction);
+    }
+
+    /**
+     * Ends the running transition immediately, leaving the items in their final state
+     */
+    void end() {
+        if (!running) return;
+        Choreographer.getInstance().removeFrameCallback(this);
+        applyFrame(1f);
+        finish();
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+
+        if (startTimeNanos < 0)
+            startTimeNanos = frameTimeNanos;
+
+        float linear = (frameTimeNanos - startTimeNanos) / (duration * 1_000_000f);
+        if (linear >= 1f) {
+            applyFrame(1f);
+            finish();
+            return;
+        }
+
+        applyFrame(interpolator.getInterpolation(Math.max(linear, 0f)));
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Applies a single frame of the transition
+     *
+     * @param fraction progress of the transition, from 0 to 1
+     */
+    private void applyFrame(float fraction) {
+        this.fraction = fraction;
+        if (items == null) return;
+
+        int count = Math.min(items.size(), MAX_ITEMS);
+        for (int i = 0; i < count; i++)
+            items.get(i).setTranslationX(deltaX[i] * (1f - fraction));
+
+        if (outgoing != null)
+            outgoing.setTransitionFraction(fraction);
+
+        if (incoming != null) {
+            incoming.setTransitionFraction(fraction);
+
+            //reveal the incoming item from its previous width to its full width
+            int width = incoming.getWidth();
+            if (fraction >= 1f || width <= 0 || incomingFromWidth <= 0) {
+                incoming.setClipBounds(null);
+            } else {
+                int visibleWidth = (int) (incomingFromWidth + (width - incomingFromWidth) * fraction);
+                int left = (width - visibleWidth) / 2;
+                clipBounds.set(left, 0, left + visibleWidth, incoming.getHeight());
+                incoming.setClipBounds(clipBounds);
+            }
+
+            if (listener != null)
+                listener.onTransitionFrame(incoming, fraction);
+        }
+    }
+
+    /**
+     * Promotes the items that only move to a hardware layer, their content does not change
+     * during the transition so the layer is drawn once
+     */
+    private void promoteLayers() {
+        int count = Math.min(items.size(), MAX_ITEMS);
+        layersPromoted = true;
+        for (int i = 0; i < count; i++) {
+            BottomNavToggleView view = items.get(i);
+            previousLayerType[i] = view.getLayerType();
+            if (view != outgoing && view != incoming && previousLayerType[i] == View.LAYER_TYPE_NONE)
+                view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        }
+    }
+
+    private void finish() {
+        running = false;
+        manual = false;
+        if (items != null && layersPromoted) {
+            int count = Math.min(items.size(), MAX_ITEMS);
+            for (int i = 0; i < count; i++) {
+                BottomNavToggleView view = items.get(i);
+                if (view.getLayerType() != previousLayerType[i])
+                    view.setLayerType(previousLayerType[i], null);
+            }
+        }
+        layersPromoted = false;
+        items = null;
+        outgoing = null;
+        incoming = null;
+
+        if (listener != null)
+            listener.onTransitionEnd();
+    }
+}
@@ -1,16 +1,49 @@
 package com.core.bottomnav;
 
 import android.graphics.Typeface;
+import android.util.SparseArray;
 
 @SuppressWarnings("unused")
 public interface IBottomNavigation {
     void setNavigationChangeListener(BottomNavChangeListener navigationChangeListener);
 
+    /**
+     * Not supported by default, the listener is never called
+     */
+    default void setNavigationIntentListener(BottomNavIntentListener navigationIntentListener) {
+    }
+
     void setTypeface(Typeface typeface);
 
     int getCurrentActiveItemPosition();
 
     void setCurrentActiveItem(int position);
 
+    /**
+     * Without a transition by default, the closest item is made active
+     */
+    default void setSelectionProgress(int fromPosition, float offset) {
+        setCurrentActiveItem(Math.round(fromPosition + offset));
+    }
+
     void setBadgeValue(int position, String value);
+
+    /**
+     * Sets the badges one by one by default
+     */
+    default void setBadgeValues(SparseArray<String> values) {
+        for (int i = 0; i < values.size(); i++)
+            setBadgeValue(values.keyAt(i), values.valueAt(i));
+    }
+
+    /**
+     * Shows the count up to 99, then 99+, by default
+     */
+    default void setBadgeCount(int position, int count) {
+        setBadgeValue(position, BottomNavBadgeLabels.label(count, BottomNavBadgeLabels.DEFAULT_CAP, false));
+    }
+
+    default BottomNavBadgeTransaction beginBadgeTransaction() {
+        return new BottomNavBadgeTransaction(this);
+    }
 }
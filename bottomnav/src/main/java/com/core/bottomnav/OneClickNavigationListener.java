@@ -1,6 +1,5 @@
 package com.core.bottomnav;
 
-import android.os.Handler;
 import android.view.View;
 
 
@@ -9,6 +8,7 @@ public abstract class OneClickNavigationListener implements View.OnClickListener
     private static final int DEFAULT_ANIM_DURATION = 400;
 
     private boolean clickable = true;
+    private final Runnable resetRunnable = this::reset;
 
     /**
      * Override onOneClick() instead.
@@ -19,8 +19,9 @@ public abstract class OneClickNavigationListener implements View.OnClickListener
             clickable = false;
             onOneClick(v);
 
-            // allow clicks after animation finishes
-            new Handler().postDelayed(this::reset, DEFAULT_ANIM_DURATION);
+            // allow clicks after animation finishes, reusing a single callback
+            v.removeCallbacks(resetRunnable);
+            v.postDelayed(resetRunnable, DEFAULT_ANIM_DURATION);
         }
     }
 
@@ -0,0 +1,55 @@
+package com.core.bottomnav;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Labels of the numeric badges
+ */
+public class BottomNavBadgeLabelsTest {
+
+    @Test
+    public void countsUpToTheCapAreShown() {
+        assertEquals("1", BottomNavBadgeLabels.label(1, BottomNavBadgeLabels.DEFAULT_CAP, false));
+        assertEquals("99", BottomNavBadgeLabels.label(99, BottomNavBadgeLabels.DEFAULT_CAP, false));
+    }
+
+    @Test
+    public void countsOverTheCapShowTheCapAndAPlus() {
+        assertEquals("99+", BottomNavBadgeLabels.label(100, BottomNavBadgeLabels.DEFAULT_CAP, false));
+        assertEquals("9+", BottomNavBadgeLabels.label(10, 9, false));
+    }
+
+    @Test
+    public void capIsLimitedToTheMaximum() {
+        assertEquals("999", BottomNavBadgeLabels.label(999, 5000, false));
+        assertEquals("999+", BottomNavBadgeLabels.label(1000, 5000, false));
+        assertEquals("999+", BottomNavBadgeLabels.label(Integer.MAX_VALUE, BottomNavBadgeLabels.MAX_CAP, false));
+        //at least one
+        assertEquals("1+", BottomNavBadgeLabels.label(2, 0, false));
+    }
+
+    @Test
+    public void countsOfZeroOrLessHideTheBadge() {
+        assertNull(BottomNavBadgeLabels.label(0, BottomNavBadgeLabels.DEFAULT_CAP, false));
+        assertNull(BottomNavBadgeLabels.label(-3, BottomNavBadgeLabels.DEFAULT_CAP, false));
+        assertNull(BottomNavBadgeLabels.label(0, BottomNavBadgeLabels.DEFAULT_CAP, true));
+    }
+
+    @Test
+    public void dotModeShowsTheDotForAnyCount() {
+        assertSame(BottomNavBadgeLabels.DOT, BottomNavBadgeLabels.label(1, BottomNavBadgeLabels.DEFAULT_CAP, true));
+        assertSame(BottomNavBadgeLabels.DOT, BottomNavBadgeLabels.label(1000, BottomNavBadgeLabels.DEFAULT_CAP, true));
+    }
+
+    @Test
+    public void labelsAreShared() {
+        assertSame(BottomNavBadgeLabels.label(42, BottomNavBadgeLabels.DEFAULT_CAP, false),
+                BottomNavBadgeLabels.label(42, BottomNavBadgeLabels.DEFAULT_CAP, false));
+        assertSame(BottomNavBadgeLabels.label(150, BottomNavBadgeLabels.DEFAULT_CAP, false),
+                BottomNavBadgeLabels.label(300, BottomNavBadgeLabels.DEFAULT_CAP, false));
+    }
+}
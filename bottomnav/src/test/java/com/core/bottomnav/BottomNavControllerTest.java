@@ -0,0 +1,217 @@
+package com.core.bottomnav;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Selection and badges of a bar whose items are submitted
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BottomNavControllerTest {
+
+    private static final long A = 1;
+    private static final long B = 2;
+    private static final long C = 3;
+    private static final long D = 4;
+
+    private BottomNavLayout bar;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        Context context = new ContextThemeWrapper(activity, androidx.appcompat.R.style.Theme_AppCompat_Light);
+        bar = new BottomNavLayout(context);
+        activity.setContentView(bar);
+        runFrame();
+    }
+
+    private static List<BottomNavItemSpec> specs(long... ids) {
+        List<BottomNavItemSpec> specs = new ArrayList<>(ids.length);
+        for (long id : ids)
+            specs.add(new BottomNavItemSpec(id, "Item " + id, null));
+        return specs;
+    }
+
+    /**
+     * Runs the pending frame work, the rendering of the state
+     */
+    private static void runFrame() {
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    private BottomNavToggleView item(long id) {
+        for (int i = 0; i < bar.getChildCount(); i++) {
+            BottomNavToggleView item = (BottomNavToggleView) bar.getChildAt(i);
+            if (item.getItemSpec().getId() == id)
+                return item;
+        }
+        throw new AssertionError("No item " + id);
+    }
+
+    private String badgeOf(long id) {
+        return item(id).getBottomNavToggleItem().getBadgeText();
+    }
+
+    @Test
+    public void badgesStayOnTheirPositionWhenItemsMove() {
+        bar.submitItems(specs(A, B));
+        bar.setBadgeValue(0, "1");
+        runFrame();
+        assertEquals("1", badgeOf(A));
+        assertNull(badgeOf(B));
+
+        bar.submitItems(specs(B, A));
+        runFrame();
+        assertEquals("1", badgeOf(B));
+        assertNull(badgeOf(A));
+
+        bar.submitItems(specs(C, A, B));
+        runFrame();
+        assertEquals("1", badgeOf(C));
+        assertNull(badgeOf(A));
+        assertNull(badgeOf(B));
+    }
+
+    /**
+     * Checks that only the item of the id is active, at the given position
+     */
+    private void assertActive(long id, int position) {
+        assertEquals(position, bar.getCurrentActiveItemPosition());
+        for (int i = 0; i < bar.getChildCount(); i++) {
+            BottomNavToggleView item = (BottomNavToggleView) bar.getChildAt(i);
+            assertEquals("item " + item.getItemSpec().getId(), item.getItemSpec().getId() == id, item.isActive());
+        }
+    }
+
+    @Test
+    public void activeItemStaysActiveWhenItemsAreAdded() {
+        bar.submitItems(specs(A, B));
+        bar.setCurrentItem(1);
+        runFrame();
+
+        bar.submitItems(specs(C, A, B, D));
+        runFrame();
+        assertActive(B, 2);
+    }
+
+    @Test
+    public void activeItemStaysActiveWhenItemsMove() {
+        bar.submitItems(specs(A, B, C));
+        bar.setCurrentItem(1);
+        runFrame();
+
+        bar.submitItems(specs(B, C, A));
+        runFrame();
+        assertActive(B, 0);
+    }
+
+    @Test
+    public void activeItemStaysActiveWhenAnItemBeforeItIsRemoved() {
+        bar.submitItems(specs(A, B, C));
+        bar.setCurrentItem(2);
+        runFrame();
+
+        bar.submitItems(specs(B, C));
+        runFrame();
+        assertActive(C, 1);
+    }
+
+    @Test
+    public void removedActiveItemMovesTheSelectionToTheClosestPosition() {
+        bar.submitItems(specs(A, B, C));
+        bar.setCurrentItem(2);
+        runFrame();
+
+        bar.submitItems(specs(A, B));
+        runFrame();
+        assertActive(B, 1);
+    }
+
+    @Test
+    public void outOfRangePositionKeepsTheActiveItem() {
+        bar.submitItems(specs(A, B, C, D));
+        bar.setCurrentItem(1);
+        runFrame();
+
+        bar.setCurrentActiveItem(7);
+        assertEquals(1, bar.getCurrentActiveItemPosition());
+        runFrame();
+        assertActive(B, 1);
+
+        //a later selection is still applied
+        bar.setCurrentActiveItem(3);
+        runFrame();
+        assertActive(D, 3);
+    }
+
+    @Test
+    public void keptItemsAreNotRecreated() {
+        bar.submitItems(specs(A, B, C));
+        BottomNavToggleView b = item(B);
+
+        bar.submitItems(specs(C, B));
+        assertSame(b, item(B));
+        assertEquals(2, bar.getChildCount());
+    }
+
+    @Test
+    public void badgesFollowThePositionsWhenItemsAreAddedAndRemoved() {
+        bar.submitItems(specs(A, B, C));
+        bar.setBadgeValue(1, "7");
+        bar.setBadgeValue(2, "8");
+        runFrame();
+        assertEquals("7", badgeOf(B));
+        assertEquals("8", badgeOf(C));
+
+        //C moves to position 1
+        bar.submitItems(specs(A, C));
+        runFrame();
+        assertNull(badgeOf(A));
+        assertEquals("7", badgeOf(C));
+
+        //D is added at position 2
+        bar.submitItems(specs(A, C, D));
+        runFrame();
+        assertEquals("7", badgeOf(C));
+        assertEquals("8", badgeOf(D));
+    }
+
+    @Test
+    public void badgeCountsFollowTheCapAndTheDotMode() {
+        bar.submitItems(specs(A, B));
+        bar.setBadgeCountCap(9);
+        bar.setBadgeCount(0, 12);
+        bar.setBadgeDotMode(true);
+        bar.setBadgeCount(1, 3);
+        runFrame();
+
+        assertEquals("9+", badgeOf(A));
+        assertSame(BottomNavBadgeLabels.DOT, badgeOf(B));
+    }
+
+    @Test
+    public void itemsWithoutAnIconShowTheDefaultIcon() {
+        bar.submitItems(specs(A, B));
+
+        assertNotNull(item(A).getSourceIcon());
+        assertNotNull(item(B).getSourceIcon());
+    }
+}
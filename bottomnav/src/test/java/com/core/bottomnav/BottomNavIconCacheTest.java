@@ -0,0 +1,159 @@
+package com.core.bottomnav;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.ContextThemeWrapper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Decoding, eviction and delivery of the icons loaded from a source
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BottomNavIconCacheTest {
+
+    private static final int ICON_SIZE = 48;
+    private static final int IMAGE_SIZE = 512;
+
+    //sources opened by the loader, in order
+    private final List<String> openedSources = new ArrayList<>();
+    private BottomNavIconLoader loader;
+    private Context context;
+
+    @Before
+    public void setUp() throws IOException {
+        context = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(),
+                androidx.appcompat.R.style.Theme_AppCompat_Light);
+        byte[] image = encodeImage(IMAGE_SIZE, IMAGE_SIZE);
+        loader = source -> {
+            openedSources.add(source);
+            return new ByteArrayInputStream(image);
+        };
+    }
+
+    @After
+    public void tearDown() {
+        BottomNavIconCache.setInstance(null);
+    }
+
+    private static byte[] encodeImage(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return a cache decoding on the calling thread, the icons are delivered by the main looper
+     */
+    private static BottomNavIconCache newCache(int maxBytes) {
+        return new BottomNavIconCache(maxBytes, Runnable::run);
+    }
+
+    private static void deliver() {
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    @Test
+    public void sampleSizeKeepsTheImageAtLeastAsLargeAsTheIcon() {
+        assertEquals(1, BottomNavIconCache.sampleSize(48, 48, 48, 48));
+        assertEquals(1, BottomNavIconCache.sampleSize(95, 95, 48, 48));
+        assertEquals(2, BottomNavIconCache.sampleSize(96, 96, 48, 48));
+        assertEquals(8, BottomNavIconCache.sampleSize(512, 512, 48, 48));
+        //limited by the smaller side
+        assertEquals(2, BottomNavIconCache.sampleSize(512, 100, 48, 48));
+    }
+
+    @Test
+    public void decodesAtTheIconSize() {
+        BottomNavIconCache cache = newCache(Integer.MAX_VALUE);
+        BottomNavToggleView view = new BottomNavToggleView(context);
+
+        cache.load("icon", ICON_SIZE, ICON_SIZE, loader, view);
+        deliver();
+
+        Bitmap bitmap = cache.getBitmap(BottomNavIconCache.key("icon", ICON_SIZE, ICON_SIZE));
+        assertNotNull(bitmap);
+        assertEquals(ICON_SIZE, bitmap.getWidth());
+        assertEquals(ICON_SIZE, bitmap.getHeight());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedIconsByBytes() {
+        int iconBytes = Bitmap.createBitmap(ICON_SIZE, ICON_SIZE, Bitmap.Config.ARGB_8888).getByteCount();
+        //room for two icons
+        BottomNavIconCache cache = newCache(iconBytes * 2);
+        BottomNavToggleView view = new BottomNavToggleView(context);
+
+        cache.load("a", ICON_SIZE, ICON_SIZE, loader, view);
+        cache.load("b", ICON_SIZE, ICON_SIZE, loader, view);
+        deliver();
+        assertEquals(iconBytes, cache.getBitmap(BottomNavIconCache.key("b", ICON_SIZE, ICON_SIZE)).getByteCount());
+
+        //a is used again, b is now the least recently used
+        assertNotNull(cache.getBitmap(BottomNavIconCache.key("a", ICON_SIZE, ICON_SIZE)));
+        cache.load("c", ICON_SIZE, ICON_SIZE, loader, view);
+        deliver();
+
+        assertNotNull(cache.getBitmap(BottomNavIconCache.key("a", ICON_SIZE, ICON_SIZE)));
+        assertNull(cache.getBitmap(BottomNavIconCache.key("b", ICON_SIZE, ICON_SIZE)));
+        assertNotNull(cache.getBitmap(BottomNavIconCache.key("c", ICON_SIZE, ICON_SIZE)));
+    }
+
+    @Test
+    public void staleRequestDoesNotReplaceTheIconOfAReusedView() {
+        BottomNavIconCache cache = newCache(Integer.MAX_VALUE);
+        BottomNavIconCache.setInstance(cache);
+        BottomNavToggleView view = new BottomNavToggleView(context);
+        int width = (int) Math.ceil(view.getBottomNavToggleItem().getIconWidth());
+        int height = (int) Math.ceil(view.getBottomNavToggleItem().getIconHeight());
+
+        //the view is reused for another item before its first icon is delivered
+        view.setIconSource("first", loader);
+        view.setIconSource("second", loader);
+        deliver();
+
+        assertEquals(2, openedSources.size());
+        Drawable icon = view.getSourceIcon();
+        assertTrue(icon instanceof BitmapDrawable);
+        assertSame(cache.getBitmap(BottomNavIconCache.key("second", width, height)), ((BitmapDrawable) icon).getBitmap());
+    }
+
+    @Test
+    public void cachedIconIsNotLoadedAgain() {
+        BottomNavIconCache cache = newCache(Integer.MAX_VALUE);
+        BottomNavIconCache.setInstance(cache);
+
+        new BottomNavToggleView(context).setIconSource("icon", loader);
+        deliver();
+        new BottomNavToggleView(context).setIconSource("icon", loader);
+        deliver();
+
+        assertEquals(1, openedSources.size());
+    }
+}
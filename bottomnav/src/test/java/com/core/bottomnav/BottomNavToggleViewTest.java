@@ -0,0 +1,76 @@
+package com.core.bottomnav;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Badge updates of a single {@link BottomNavToggleView}
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BottomNavToggleViewTest {
+
+    private BottomNavToggleView view;
+
+    @Before
+    public void setUp() {
+        Context context = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(),
+                androidx.appcompat.R.style.Theme_AppCompat_Light);
+        view = new BottomNavToggleView(context);
+        view.measure(View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+    }
+
+    @Test
+    public void badgeUpdatesDoNotRequestLayout() {
+        int layoutRequestCount = view.getLayoutRequestCount();
+
+        view.setBadgeText("1");
+        view.setBadgeText("2");
+        //a wider badge is only resized
+        view.setBadgeText("99+");
+        view.setBadgeText(BottomNavBadgeLabels.DOT);
+        view.setBadgeText(null);
+
+        assertEquals(layoutRequestCount, view.getLayoutRequestCount());
+        assertFalse(view.isLayoutRequested());
+        assertEquals(5, view.getBadgeUpdateCount());
+    }
+
+    @Test
+    public void badgeUpdatesOfAnActiveItemDoNotRequestLayout() {
+        view.activate();
+        view.measure(View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        int layoutRequestCount = view.getLayoutRequestCount();
+
+        view.setBadgeText("1");
+        view.setBadgeText("10");
+
+        assertEquals(layoutRequestCount, view.getLayoutRequestCount());
+    }
+
+    @Test
+    public void sameBadgeTextIsNotInvalidatedAgain() {
+        view.setBadgeText("3");
+        int invalidateCount = view.getBadgeInvalidateCount();
+
+        view.setBadgeText(new String("3"));
+
+        assertEquals(invalidateCount, view.getBadgeInvalidateCount());
+    }
+}